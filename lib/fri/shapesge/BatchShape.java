@@ -0,0 +1,20 @@
+package fri.shapesge;
+
+/**
+ * Kinds of shapes a {@link ShapeBatch} can hold.
+ */
+@SuppressWarnings("unused")
+public enum BatchShape {
+    /**
+     * Squares with the top left corner at the shape position.
+     */
+    SQUARE,
+    /**
+     * Circles with the top left corner of their bounding square at the shape position.
+     */
+    CIRCLE,
+    /**
+     * Triangles with the top vertex at the shape position, as drawn by {@link Triangle}.
+     */
+    TRIANGLE
+}
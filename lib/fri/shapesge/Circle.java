@@ -167,4 +167,8 @@ public class Circle {
     public int getDiameter() {
         return this.diameter;
     }
+
+    EllipticalDrawable getDrawable() {
+        return this.drawable;
+    }
 }
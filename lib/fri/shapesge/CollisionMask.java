@@ -0,0 +1,196 @@
+package fri.shapesge;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * The CollisionMask class holds the solid pixels of an image, for exact collisions of sprites.
+ * Every row of the image is packed into longs, one bit per pixel, so an overlap test compares
+ * 64 pixels with a single AND. Tests first compare the boxes around the solid pixels,
+ * so far apart sprites cost no more than a bounding box test.
+ * A mask describes the image as it is drawn without rotation, positions are of its top-left corner.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class CollisionMask {
+    // pixels at least half opaque are solid
+    private static final int SOLID_ALPHA = 128;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    // bit x % 64 of word x / 64 of a row is the pixel at x, bits past the width are zero
+    private final long[] bits;
+    // box around the solid pixels, relative to the top-left corner
+    private final int solidLeft;
+    private final int solidTop;
+    private final int solidRight;
+    private final int solidBottom;
+
+    /**
+     * Creates the mask of an image from its alpha channel.
+     */
+    CollisionMask(BufferedImage image) {
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.wordsPerRow = (this.width + 63) >>> 6;
+        this.bits = new long[this.wordsPerRow * this.height];
+
+        var left = this.width;
+        var top = this.height;
+        var right = -1;
+        var bottom = -1;
+        var row = new int[this.width];
+        for (var y = 0; y < this.height; y++) {
+            image.getRGB(0, y, this.width, 1, row, 0, this.width);
+            for (var x = 0; x < this.width; x++) {
+                if (row[x] >>> 24 >= SOLID_ALPHA) {
+                    this.bits[y * this.wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+                    left = Math.min(left, x);
+                    top = Math.min(top, y);
+                    right = Math.max(right, x);
+                    bottom = Math.max(bottom, y);
+                }
+            }
+        }
+        this.solidLeft = left;
+        this.solidTop = top;
+        this.solidRight = right;
+        this.solidBottom = bottom;
+    }
+
+    /**
+     * Returns width of the mask, the same as of its image.
+     * @return width in pixels
+     */
+    @SuppressWarnings("unused")
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns height of the mask, the same as of its image.
+     * @return height in pixels
+     */
+    @SuppressWarnings("unused")
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Checks whether a pixel of the image is solid.
+     * @param x x-coordinate of the pixel within the image
+     * @param y y-coordinate of the pixel within the image
+     * @return true if the pixel is at least half opaque, false for other pixels and pixels outside the image
+     */
+    @SuppressWarnings("unused")
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return false;
+        }
+        return (this.bits[y * this.wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    /**
+     * Checks whether the mask at a position overlaps a circle.
+     * A pixel is covered by the circle when its distance from the center is less than the radius.
+     * @param maskX x-coordinate of the mask's top-left corner
+     * @param maskY y-coordinate of the mask's top-left corner
+     * @param circleX x-coordinate of the circle's center
+     * @param circleY y-coordinate of the circle's center
+     * @param radius radius of the circle
+     * @return true if a solid pixel is covered by the circle
+     */
+    @SuppressWarnings("unused")
+    public boolean overlapsCircle(int maskX, int maskY, int circleX, int circleY, int radius) {
+        // the circle relative to the mask
+        var centerX = circleX - maskX;
+        var centerY = circleY - maskY;
+        if (radius <= 0 || this.solidRight < 0 ||
+                centerX + radius <= this.solidLeft || centerX - radius >= this.solidRight ||
+                centerY + radius <= this.solidTop || centerY - radius >= this.solidBottom) {
+            return false;
+        }
+
+        var firstRow = Math.max(this.solidTop, centerY - radius + 1);
+        var lastRow = Math.min(this.solidBottom, centerY + radius - 1);
+        var radiusSquared = (long)radius * radius;
+        for (var y = firstRow; y <= lastRow; y++) {
+            // the widest span of pixels of this row closer to the center than the radius
+            var distanceY = (long)(y - centerY);
+            var reach = (int)Math.sqrt(radiusSquared - distanceY * distanceY);
+            while ((long)reach * reach + distanceY * distanceY >= radiusSquared) {
+                reach--;
+            }
+            while ((long)(reach + 1) * (reach + 1) + distanceY * distanceY < radiusSquared) {
+                reach++;
+            }
+
+            var left = Math.max(this.solidLeft, centerX - reach);
+            var right = Math.min(this.solidRight, centerX + reach);
+            for (var x = left; x <= right; x += 64) {
+                var span = this.bitsAt(y, x);
+                var count = right - x + 1;
+                if (count < 64) {
+                    span &= (1L << count) - 1;
+                }
+                if (span != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the mask at a position overlaps another mask.
+     * @param maskX x-coordinate of this mask's top-left corner
+     * @param maskY y-coordinate of this mask's top-left corner
+     * @param other the other mask, may be this mask too
+     * @param otherX x-coordinate of the other mask's top-left corner
+     * @param otherY y-coordinate of the other mask's top-left corner
+     * @return true if a solid pixel of one mask lies on a solid pixel of the other
+     */
+    @SuppressWarnings("unused")
+    public boolean overlaps(int maskX, int maskY, CollisionMask other, int otherX, int otherY) {
+        if (this.solidRight < 0 || other.solidRight < 0) {
+            return false;
+        }
+
+        // the overlap of the boxes around the solid pixels, in canvas coordinates
+        var left = Math.max(maskX + this.solidLeft, otherX + other.solidLeft);
+        var right = Math.min(maskX + this.solidRight, otherX + other.solidRight);
+        var top = Math.max(maskY + this.solidTop, otherY + other.solidTop);
+        var bottom = Math.min(maskY + this.solidBottom, otherY + other.solidBottom);
+        if (left > right || top > bottom) {
+            return false;
+        }
+
+        for (var y = top; y <= bottom; y++) {
+            for (var x = left; x <= right; x += 64) {
+                // pixels past the right edge of the overlap are outside one of the boxes, that is zero in it
+                var span = this.bitsAt(y - maskY, x - maskX) & other.bitsAt(y - otherY, x - otherX);
+                if (span != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets 64 pixels of a row starting at any pixel, pixels outside the image are not solid.
+     */
+    private long bitsAt(int y, int x) {
+        var base = y * this.wordsPerRow;
+        var word = x >> 6;
+        var shift = x & 63;
+        var low = word >= 0 && word < this.wordsPerRow ? this.bits[base + word] : 0L;
+        if (shift == 0) {
+            return low;
+        }
+        var high = word + 1 >= 0 && word + 1 < this.wordsPerRow ? this.bits[base + word + 1] : 0L;
+        return (low >>> shift) | (high << (64 - shift));
+    }
+}
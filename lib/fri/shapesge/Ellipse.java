@@ -132,4 +132,8 @@ public class Ellipse {
     public void changePosition(int x, int y) {
         this.drawable.moveTo(x, y);
     }
+
+    EllipticalDrawable getDrawable() {
+        return this.drawable;
+    }
 }
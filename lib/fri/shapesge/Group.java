@@ -0,0 +1,177 @@
+package fri.shapesge;
+
+import fri.shapesge.drawables.GameDrawable;
+import fri.shapesge.drawables.GroupDrawable;
+
+/**
+ * A group of shapes that move, rotate and hide together.
+ * Shapes added to the group are positioned relative to the position of the group,
+ * so moving the group moves all of them at once, however many there are.
+ * Shapes keep their own visibility, a shape is drawn when both the shape and the group are visible.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class Group {
+    private final GroupDrawable drawable;
+    private int x;
+    private int y;
+
+    /**
+     * Create a new empty group at position 0, 0.
+     */
+    @SuppressWarnings("unused")
+    public Group() {
+        this(0, 0);
+    }
+
+    /**
+     * Create a new empty group at a given position.
+     * @param x x-coordinate of the group
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the group
+     *          (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public Group(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.drawable = new GroupDrawable(x, y);
+    }
+
+    /**
+     * Add a shape to the group. From now on, the position of the shape is relative to the position of the group.
+     * A shape can be in one group only, groups can be nested.
+     * @param shape Circle, Ellipse, Rectangle, Square, Triangle, Polygon, Image, TextBlock, TileMap, ShapeBatch or Group
+     */
+    @SuppressWarnings("unused")
+    public void add(Object shape) {
+        this.drawable.add(Group.memberDrawable(shape));
+    }
+
+    /**
+     * Remove a shape from the group. Its position is relative to the canvas again.
+     * @param shape shape added to the group before
+     */
+    @SuppressWarnings("unused")
+    public void remove(Object shape) {
+        this.drawable.remove(Group.memberDrawable(shape));
+    }
+
+    /**
+     * Make this group visible. If it was already visible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeVisible() {
+        this.drawable.makeVisible();
+    }
+
+    /**
+     * Make this group invisible, together with all its shapes. If it was already invisible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeInvisible() {
+        this.drawable.makeInvisible();
+    }
+
+    /**
+     * Move the group horizontally by 'distance' pixels.
+     * @param distance distance in pixels
+     */
+    @SuppressWarnings("unused")
+    public void moveHorizontal(int distance) {
+        this.changePosition(this.x + distance, this.y);
+    }
+
+    /**
+     * Move the group vertically by 'distance' pixels.
+     * @param distance distance in pixels
+     */
+    @SuppressWarnings("unused")
+    public void moveVertical(int distance) {
+        this.changePosition(this.x, this.y + distance);
+    }
+
+    /**
+     * Change the position according to the parameters.
+     * @param x x-coordinate of the group
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the group
+     *          (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public void changePosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.drawable.moveTo(x, y);
+    }
+
+    /**
+     * Rotate the group around its position.
+     * @param angle angle in degrees, clockwise
+     */
+    @SuppressWarnings("unused")
+    public void changeAngle(int angle) {
+        this.drawable.changeAngle(angle);
+    }
+
+    /**
+     * Get the x-coordinate of the group.
+     * @return x-coordinate (distance from left border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public int getX() {
+        return this.x;
+    }
+
+    /**
+     * Get the y-coordinate of the group.
+     * @return y-coordinate (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * Get the angle of the group.
+     * @return angle in degrees
+     */
+    @SuppressWarnings("unused")
+    public int getAngle() {
+        return this.drawable.getAngle();
+    }
+
+    GroupDrawable getDrawable() {
+        return this.drawable;
+    }
+
+    private static GameDrawable memberDrawable(Object shape) {
+        if (shape instanceof Circle) {
+            return ((Circle)shape).getDrawable();
+        } else if (shape instanceof Ellipse) {
+            return ((Ellipse)shape).getDrawable();
+        } else if (shape instanceof Rectangle) {
+            return ((Rectangle)shape).getDrawable();
+        } else if (shape instanceof Square) {
+            return ((Square)shape).getDrawable();
+        } else if (shape instanceof Triangle) {
+            return ((Triangle)shape).getDrawable();
+        } else if (shape instanceof Polygon) {
+            return ((Polygon)shape).getDrawable();
+        } else if (shape instanceof Image) {
+            return ((Image)shape).getDrawable();
+        } else if (shape instanceof TextBlock) {
+            return ((TextBlock)shape).getDrawable();
+        } else if (shape instanceof TileMap) {
+            return ((TileMap)shape).getDrawable();
+        } else if (shape instanceof ShapeBatch) {
+            return ((ShapeBatch)shape).getDrawable();
+        } else if (shape instanceof Group) {
+            return ((Group)shape).getDrawable();
+        }
+
+        throw new RuntimeException("Invalid group member");
+    }
+}
@@ -55,7 +55,7 @@ public class Image {
      *          (distance from top border of the canvas)
      */
     public Image(ImageData imageData, int x, int y) {
-        this.drawable = new ImageDrawable(x, y, 0, imageData.getImage());
+        this.drawable = new ImageDrawable(x, y, 0, imageData.getImage(), imageData.getAtlasPage(), imageData.getAtlasX(), imageData.getAtlasY());
     }
 
     /**
@@ -139,7 +139,7 @@ public class Image {
      */
     @SuppressWarnings("unused")
     public void changeImage(ImageData imageData) {
-        this.drawable.changeImage(imageData.getImage());
+        this.drawable.changeImage(imageData.getImage(), imageData.getAtlasPage(), imageData.getAtlasX(), imageData.getAtlasY());
     }
 
     /**
@@ -162,4 +162,8 @@ public class Image {
     public void changePosition(int x, int y) {
         this.drawable.moveTo(x, y);
     }
+
+    ImageDrawable getDrawable() {
+        return this.drawable;
+    }
 }
@@ -0,0 +1,61 @@
+package fri.shapesge;
+
+import fri.shapesge.engine.Game;
+import fri.shapesge.engine.GameImageAtlas;
+import fri.shapesge.engine.ShapesGEException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The ImageAtlas class loads a set of images and packs them into a few large images.
+ * Images taken from the atlas are drawn from one shared source image,
+ * which is faster than drawing many separately loaded images.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class ImageAtlas {
+    private final GameImageAtlas atlas;
+    // one image data per image, so everything cached with it, like the collision mask, is shared
+    private final HashMap<String, ImageData> imageData;
+
+    /**
+     * Reads images from given paths and packs them into the atlas.
+     * @param imagePaths paths to the images
+     */
+    @SuppressWarnings("unused")
+    public ImageAtlas(String... imagePaths) {
+        this.atlas = new GameImageAtlas(Game.getGame().getParser(), Arrays.asList(imagePaths));
+        this.imageData = new HashMap<>();
+        for (var imagePath : imagePaths) {
+            var region = this.atlas.getRegion(imagePath);
+            this.imageData.put(imagePath, new ImageData(region.getImage(), region.getPage(), region.getX(), region.getY()));
+        }
+    }
+
+    /**
+     * Returns image data of an image packed in the atlas, the same instance for every call.
+     * @param imagePath path the image was loaded from
+     * @return image data usable by the {@link Image} class
+     */
+    @SuppressWarnings("unused")
+    public ImageData getImageData(String imagePath) {
+        var imageData = this.imageData.get(imagePath);
+        if (imageData == null) {
+            throw new ShapesGEException("Image " + imagePath + " is not in the atlas.");
+        }
+
+        return imageData;
+    }
+
+    /**
+     * Returns number of large images the atlas was packed into.
+     * @return number of atlas pages
+     */
+    @SuppressWarnings("unused")
+    public int getPageCount() {
+        return this.atlas.getPageCount();
+    }
+}
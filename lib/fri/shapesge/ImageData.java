@@ -13,6 +13,10 @@ import java.awt.image.BufferedImage;
 public class ImageData {
 
     private final BufferedImage image;
+    private final BufferedImage atlasPage;
+    private final int atlasX;
+    private final int atlasY;
+    private CollisionMask collisionMask;
 
     /**
      * Reads an image from a given path.
@@ -20,6 +24,19 @@ public class ImageData {
      */
     public ImageData(String imagePath) {
         this.image = Game.getGame().getParser().parseImage(imagePath);
+        this.atlasPage = null;
+        this.atlasX = 0;
+        this.atlasY = 0;
+    }
+
+    /**
+     * Creates image data for an image packed in an {@link ImageAtlas}.
+     */
+    ImageData(BufferedImage image, BufferedImage atlasPage, int atlasX, int atlasY) {
+        this.image = image;
+        this.atlasPage = atlasPage;
+        this.atlasX = atlasX;
+        this.atlasY = atlasY;
     }
 
     /**
@@ -40,7 +57,33 @@ public class ImageData {
         return this.image.getHeight();
     }
 
+    /**
+     * Returns the collision mask of the image, for exact collisions with its solid pixels.
+     * The mask is built from the alpha channel the first time it is asked for, typically while
+     * a level loads, and kept with the image data, so the same image data always gives the same mask.
+     * @return collision mask of the image
+     */
+    @SuppressWarnings("unused")
+    public synchronized CollisionMask getCollisionMask() {
+        if (this.collisionMask == null) {
+            this.collisionMask = new CollisionMask(this.image);
+        }
+        return this.collisionMask;
+    }
+
     BufferedImage getImage() {
         return this.image;
     }
+
+    BufferedImage getAtlasPage() {
+        return this.atlasPage;
+    }
+
+    int getAtlasX() {
+        return this.atlasX;
+    }
+
+    int getAtlasY() {
+        return this.atlasY;
+    }
 }
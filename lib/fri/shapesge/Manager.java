@@ -2,6 +2,8 @@ package fri.shapesge;
 
 import fri.shapesge.engine.Game;
 
+import java.util.HashMap;
+
 /**
  * Sends messages to a managed objects as defined in spge.ini
  * @author Ján Janech
@@ -9,11 +11,16 @@ import fri.shapesge.engine.Game;
  */
 @SuppressWarnings("unused")
 public class Manager {
+    // key and button names parsed once, polling them every tick only looks the name up
+    private final HashMap<String, Integer> keyCodes;
+    private final HashMap<String, Integer> mouseButtons;
+
     /**
      * Create a new manager that manages no objects yet.
      */
     public Manager() {
-
+        this.keyCodes = new HashMap<>();
+        this.mouseButtons = new HashMap<>();
     }
 
     /**
@@ -31,4 +38,94 @@ public class Manager {
     public void stopManagingObject(Object object) {
         Game.getGame().deregisterEventTarget(object);
     }
+
+    /**
+     * Get how often a timer sends its message, as set in the Timers section of sbge.ini.
+     * @param message message sent by the timer, e.g. tick
+     * @return interval of the timer in nanoseconds, -1 if no timer sends the message
+     */
+    public long getTimerInterval(String message) {
+        return Game.getGame().getTimerInterval(message);
+    }
+
+    /**
+     * Check whether a key is held down right now.
+     * @param key key name as used in sbge.ini, e.g. LEFT or SPACE
+     * @return true if the key is held down
+     */
+    public boolean isKeyDown(String key) {
+        return Game.getGame().isKeyDown(this.keyCode(key));
+    }
+
+    /**
+     * Get how long a key was held down since the previous call for the same key.
+     * Movement scaled by this time follows the keyboard exactly, even within a single tick.
+     * @param key key name as used in sbge.ini, e.g. LEFT or SPACE
+     * @return time the key was held down, in nanoseconds
+     */
+    public long takeKeyHeldTime(String key) {
+        return Game.getGame().takeKeyHeldTime(this.keyCode(key));
+    }
+
+    /**
+     * Get how long a mouse button was held down since the previous call for the same button.
+     * @param button button name as used in sbge.ini, e.g. left or right
+     * @return time the button was held down, in nanoseconds
+     */
+    public long takeButtonHeldTime(String button) {
+        return Game.getGame().takeButtonHeldTime(this.mouseButton(button));
+    }
+
+    /**
+     * Check whether a mouse button is held down right now.
+     * @param button button name as used in sbge.ini, e.g. left or right
+     * @return true if the button is held down
+     */
+    public boolean isButtonDown(String button) {
+        return Game.getGame().isButtonDown(this.mouseButton(button));
+    }
+
+    /**
+     * Check whether the mouse has moved over the canvas yet.
+     * @return true if the pointer position is known
+     */
+    public boolean hasPointer() {
+        return Game.getGame().hasPointer();
+    }
+
+    /**
+     * Get the x-coordinate of the mouse pointer on the canvas.
+     * The position is sampled once per frame, so it does not change during a tick.
+     * @return x-coordinate of the pointer, it can lie outside the canvas
+     */
+    public int getPointerX() {
+        return Game.getGame().getPointerX();
+    }
+
+    /**
+     * Get the y-coordinate of the mouse pointer on the canvas.
+     * The position is sampled once per frame, so it does not change during a tick.
+     * @return y-coordinate of the pointer, it can lie outside the canvas
+     */
+    public int getPointerY() {
+        return Game.getGame().getPointerY();
+    }
+
+    private int keyCode(String key) {
+        var keyCode = this.keyCodes.get(key);
+        if (keyCode == null) {
+            keyCode = Game.getGame().getParser().parseKeyCode(key);
+            this.keyCodes.put(key, keyCode);
+        }
+        return keyCode;
+    }
+
+    private int mouseButton(String button) {
+        var mouseButton = this.mouseButtons.get(button);
+        if (mouseButton == null) {
+            mouseButton = Game.getGame().getParser().parseMouseButton(button);
+            this.mouseButtons.put(button, mouseButton);
+        }
+        return mouseButton;
+    }
 }
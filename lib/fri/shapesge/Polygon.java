@@ -0,0 +1,100 @@
+package fri.shapesge;
+
+import fri.shapesge.drawables.PolygonalDrawable;
+
+import java.awt.Color;
+
+/**
+ * A convex polygon that can be manipulated and that draws itself on a canvas.
+ * Points of the polygon are relative to its position, so a polygon moves without changing them.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class Polygon {
+    private final PolygonalDrawable drawable;
+
+    /**
+     * Create a new polygon at a given position with default color.
+     * @param x x-coordinate of the polygon
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the polygon
+     *          (distance from top border of the canvas)
+     * @param xPoints x-coordinates of the points, relative to the position
+     * @param yPoints y-coordinates of the points, relative to the position
+     */
+    @SuppressWarnings("unused")
+    public Polygon(int x, int y, int[] xPoints, int[] yPoints) {
+        this.drawable = new PolygonalDrawable(x, y, xPoints, yPoints, Color.magenta);
+    }
+
+    /**
+     * Make this polygon visible. If it was already visible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeVisible() {
+        this.drawable.makeVisible();
+    }
+
+    /**
+     * Make this polygon invisible. If it was already invisible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeInvisible() {
+        this.drawable.makeInvisible();
+    }
+
+    /**
+     * Move the polygon horizontally by 'distance' pixels.
+     * @param distance distance in pixels
+     */
+    @SuppressWarnings("unused")
+    public void moveHorizontal(int distance) {
+        this.drawable.moveBy(distance, 0);
+    }
+
+    /**
+     * Move the polygon vertically by 'distance' pixels.
+     * @param distance distance in pixels
+     */
+    @SuppressWarnings("unused")
+    public void moveVertical(int distance) {
+        this.drawable.moveBy(0, distance);
+    }
+
+    /**
+     * Change the points of the polygon. The points must form a convex polygon, at least a triangle.
+     * @param xPoints x-coordinates of the points, relative to the position
+     * @param yPoints y-coordinates of the points, relative to the position
+     */
+    @SuppressWarnings("unused")
+    public void changePoints(int[] xPoints, int[] yPoints) {
+        this.drawable.changePoints(xPoints, yPoints);
+    }
+
+    /**
+     * Change the color.
+     * @param newColor new color from palette or in #rrggbb format
+     */
+    @SuppressWarnings("unused")
+    public void changeColor(String newColor) {
+        this.drawable.changeColor(newColor);
+    }
+
+    /**
+     * Change the position according to the parameters.
+     * @param x x-coordinate of the polygon
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the polygon
+     *          (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public void changePosition(int x, int y) {
+        this.drawable.moveTo(x, y);
+    }
+
+    PolygonalDrawable getDrawable() {
+        return this.drawable;
+    }
+}
@@ -179,4 +179,8 @@ public class Rectangle {
     public int getHeight() {
         return this.height;
     }
+
+    RectangularDrawable getDrawable() {
+        return this.drawable;
+    }
 }
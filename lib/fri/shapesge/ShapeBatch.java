@@ -0,0 +1,163 @@
+package fri.shapesge;
+
+import fri.shapesge.drawables.ShapeBatchDrawable;
+
+/**
+ * A batch of many shapes of one kind that draws itself on a canvas in a single pass.
+ * Shapes are kept in arrays of positions, sizes and color indices, so a batch can hold
+ * tens of thousands of shapes for particle effects, starfields or debris
+ * without creating an object per shape.
+ * Shape positions are relative to the position of the batch.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class ShapeBatch {
+    private final ShapeBatchDrawable drawable;
+
+    /**
+     * Create a new empty batch at position 0, 0.
+     * @param shape kind of the shapes in the batch
+     * @param capacity maximal number of shapes in the batch
+     */
+    @SuppressWarnings("unused")
+    public ShapeBatch(BatchShape shape, int capacity) {
+        ShapeBatchDrawable.Shape drawableShape;
+        switch (shape) {
+            case SQUARE:
+                drawableShape = ShapeBatchDrawable.Shape.SQUARE;
+                break;
+            case CIRCLE:
+                drawableShape = ShapeBatchDrawable.Shape.CIRCLE;
+                break;
+            default:
+                drawableShape = ShapeBatchDrawable.Shape.TRIANGLE;
+                break;
+        }
+        this.drawable = new ShapeBatchDrawable(drawableShape, capacity);
+    }
+
+    /**
+     * Make this batch visible. If it was already visible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeVisible() {
+        this.drawable.makeVisible();
+    }
+
+    /**
+     * Make this batch invisible. If it was already invisible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeInvisible() {
+        this.drawable.makeInvisible();
+    }
+
+    /**
+     * Change the color shapes with a given color index are drawn with.
+     * Color index 0 is black until changed.
+     * @param colorIndex color index, 0 or greater
+     * @param newColor new color from palette or in #rrggbb format
+     */
+    @SuppressWarnings("unused")
+    public void changeColor(int colorIndex, String newColor) {
+        this.drawable.changePaletteColor(colorIndex, newColor);
+    }
+
+    /**
+     * Change the number of drawn shapes. Shapes with an index of at least count are not drawn.
+     * @param count number of drawn shapes, at most the capacity
+     */
+    @SuppressWarnings("unused")
+    public void changeCount(int count) {
+        this.drawable.changeCount(count);
+    }
+
+    /**
+     * Change a single shape.
+     * @param index index of the shape
+     * @param x x-coordinate of the shape
+     * @param y y-coordinate of the shape
+     * @param size size of the shape in pixels, shapes of size 0 are not drawn
+     * @param colorIndex color index of the shape
+     */
+    @SuppressWarnings("unused")
+    public void changeShape(int index, int x, int y, int size, int colorIndex) {
+        this.drawable.changeShape(index, x, y, size, colorIndex);
+    }
+
+    /**
+     * Change shapes 0 to count - 1 at once. Values are copied from the arrays.
+     * Any of the arrays may be null to keep the current values.
+     * @param x x-coordinates of the shapes
+     * @param y y-coordinates of the shapes
+     * @param size sizes of the shapes
+     * @param colorIndex color indices of the shapes
+     * @param count number of changed shapes
+     */
+    @SuppressWarnings("unused")
+    public void changeShapes(int[] x, int[] y, int[] size, int[] colorIndex, int count) {
+        this.drawable.changeShapes(0, x, y, size, colorIndex, count);
+    }
+
+    /**
+     * Change count shapes starting at a given index at once. Values are copied from the arrays.
+     * Any of the arrays may be null to keep the current values.
+     * @param index index of the first changed shape
+     * @param x x-coordinates of the shapes
+     * @param y y-coordinates of the shapes
+     * @param size sizes of the shapes
+     * @param colorIndex color indices of the shapes
+     * @param count number of changed shapes
+     */
+    @SuppressWarnings("unused")
+    public void changeShapes(int index, int[] x, int[] y, int[] size, int[] colorIndex, int count) {
+        this.drawable.changeShapes(index, x, y, size, colorIndex, count);
+    }
+
+    /**
+     * Move shapes 0 to count - 1 by the distances in the arrays.
+     * @param dx horizontal distances in pixels
+     * @param dy vertical distances in pixels
+     * @param count number of moved shapes
+     */
+    @SuppressWarnings("unused")
+    public void moveShapes(int[] dx, int[] dy, int count) {
+        this.drawable.moveShapes(0, dx, dy, count);
+    }
+
+    /**
+     * Move the whole batch to a new position.
+     * @param x x-coordinate of the batch
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the batch
+     *          (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public void changePosition(int x, int y) {
+        this.drawable.moveTo(x, y);
+    }
+
+    /**
+     * Get the number of drawn shapes.
+     * @return number of drawn shapes
+     */
+    @SuppressWarnings("unused")
+    public int getCount() {
+        return this.drawable.getCount();
+    }
+
+    /**
+     * Get the maximal number of shapes in the batch.
+     * @return capacity of the batch
+     */
+    @SuppressWarnings("unused")
+    public int getCapacity() {
+        return this.drawable.getCapacity();
+    }
+
+    ShapeBatchDrawable getDrawable() {
+        return this.drawable;
+    }
+}
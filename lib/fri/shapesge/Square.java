@@ -130,4 +130,8 @@ public class Square {
     public void changePosition(int x, int y) {
         this.drawable.moveTo(x, y);
     }
+
+    RectangularDrawable getDrawable() {
+        return this.drawable;
+    }
 }
@@ -187,4 +187,8 @@ public class TextBlock {
     public void changeFontSize(int size) {
         this.drawable.changeFontSize(size);
     }
+
+    TextDrawable getDrawable() {
+        return this.drawable;
+    }
 }
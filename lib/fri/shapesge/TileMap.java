@@ -0,0 +1,210 @@
+package fri.shapesge;
+
+import fri.shapesge.drawables.TileMapDrawable;
+
+/**
+ * A grid of colored tiles that draws itself on a canvas as a single object.
+ * Tiles are identified by their column and row, each holds a tile id.
+ * Tile id 0 means an empty tile, other ids get their color from {@link #changeTileColor(int, String)}.
+ * Changing tiles is cheap even for large grids, so the tile map suits brick walls and similar grid-based content.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class TileMap {
+    private final TileMapDrawable drawable;
+
+    /**
+     * Create a new empty tile map with tiles filling their cells completely.
+     * @param x x-coordinate of the tile map
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the tile map
+     *          (distance from top border of the canvas)
+     * @param columns number of columns
+     * @param rows number of rows
+     * @param tileWidth width of a tile in pixels
+     * @param tileHeight height of a tile in pixels
+     */
+    @SuppressWarnings("unused")
+    public TileMap(int x, int y, int columns, int rows, int tileWidth, int tileHeight) {
+        this(x, y, columns, rows, tileWidth, tileHeight, tileWidth, tileHeight);
+    }
+
+    /**
+     * Create a new empty tile map with gaps between tiles.
+     * Each tile is drawn in the top left corner of its cell.
+     * @param x x-coordinate of the tile map
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the tile map
+     *          (distance from top border of the canvas)
+     * @param columns number of columns
+     * @param rows number of rows
+     * @param cellWidth distance between left borders of neighbouring tiles in pixels
+     * @param cellHeight distance between top borders of neighbouring tiles in pixels
+     * @param tileWidth width of a tile in pixels, at most cellWidth
+     * @param tileHeight height of a tile in pixels, at most cellHeight
+     */
+    @SuppressWarnings("unused")
+    public TileMap(int x, int y, int columns, int rows, int cellWidth, int cellHeight, int tileWidth, int tileHeight) {
+        this.drawable = new TileMapDrawable(x, y, columns, rows, cellWidth, cellHeight, tileWidth, tileHeight);
+    }
+
+    /**
+     * Make this tile map visible. If it was already visible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeVisible() {
+        this.drawable.makeVisible();
+    }
+
+    /**
+     * Make this tile map invisible. If it was already invisible, do nothing.
+     */
+    @SuppressWarnings("unused")
+    public void makeInvisible() {
+        this.drawable.makeInvisible();
+    }
+
+    /**
+     * Change the color of tiles with a given id.
+     * @param tileId tile id, greater than 0
+     * @param newColor new color from palette or in #rrggbb format
+     */
+    @SuppressWarnings("unused")
+    public void changeTileColor(int tileId, String newColor) {
+        this.drawable.changeTileColor(tileId, newColor);
+    }
+
+    /**
+     * Change the tile at a given position.
+     * @param column column of the tile
+     * @param row row of the tile
+     * @param tileId new tile id, 0 to make the tile empty; its color has to be set first
+     */
+    @SuppressWarnings("unused")
+    public void changeTile(int column, int row, int tileId) {
+        this.drawable.changeTile(column, row, tileId);
+    }
+
+    /**
+     * Make the tile at a given position empty.
+     * @param column column of the tile
+     * @param row row of the tile
+     */
+    @SuppressWarnings("unused")
+    public void clearTile(int column, int row) {
+        this.drawable.changeTile(column, row, 0);
+    }
+
+    /**
+     * Get the tile id at a given position.
+     * @param column column of the tile
+     * @param row row of the tile
+     * @return tile id, 0 for an empty tile
+     */
+    @SuppressWarnings("unused")
+    public int getTile(int column, int row) {
+        return this.drawable.getTile(column, row);
+    }
+
+    /**
+     * Turn row caching on or off. With row caching, every row is kept pre-rendered
+     * and only changed tiles are redrawn into it, which suits maps that change rarely.
+     * @param rowCaching true to cache rows
+     */
+    @SuppressWarnings("unused")
+    public void changeRowCaching(boolean rowCaching) {
+        this.drawable.changeRowCaching(rowCaching);
+    }
+
+    /**
+     * Change the position according to the parameters.
+     * @param x x-coordinate of the tile map
+     *          (distance from left border of the canvas)
+     * @param y y-coordinate of the tile map
+     *          (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public void changePosition(int x, int y) {
+        this.drawable.moveTo(x, y);
+    }
+
+    /**
+     * Get the x-coordinate of the tile map.
+     * @return x-coordinate (distance from left border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public int getX() {
+        return this.drawable.getXPosition();
+    }
+
+    /**
+     * Get the y-coordinate of the tile map.
+     * @return y-coordinate (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public int getY() {
+        return this.drawable.getYPosition();
+    }
+
+    /**
+     * Get the x-coordinate of the left border of a tile in a given column.
+     * @param column column of the tile
+     * @return x-coordinate (distance from left border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public int getTileX(int column) {
+        return this.drawable.getXPosition() + column * this.drawable.getCellWidth();
+    }
+
+    /**
+     * Get the y-coordinate of the top border of a tile in a given row.
+     * @param row row of the tile
+     * @return y-coordinate (distance from top border of the canvas)
+     */
+    @SuppressWarnings("unused")
+    public int getTileY(int row) {
+        return this.drawable.getYPosition() + row * this.drawable.getCellHeight();
+    }
+
+    /**
+     * Get the number of columns.
+     * @return number of columns
+     */
+    @SuppressWarnings("unused")
+    public int getColumns() {
+        return this.drawable.getColumns();
+    }
+
+    /**
+     * Get the number of rows.
+     * @return number of rows
+     */
+    @SuppressWarnings("unused")
+    public int getRows() {
+        return this.drawable.getRows();
+    }
+
+    /**
+     * Get the width of a tile.
+     * @return width in pixels
+     */
+    @SuppressWarnings("unused")
+    public int getTileWidth() {
+        return this.drawable.getTileWidth();
+    }
+
+    /**
+     * Get the height of a tile.
+     * @return height in pixels
+     */
+    @SuppressWarnings("unused")
+    public int getTileHeight() {
+        return this.drawable.getTileHeight();
+    }
+
+    TileMapDrawable getDrawable() {
+        return this.drawable;
+    }
+}
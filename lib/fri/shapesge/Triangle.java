@@ -132,4 +132,8 @@ public class Triangle {
     public void changePosition(int x, int y) {
         this.drawable.moveTo(x, y);
     }
+
+    TriangularDrawable getDrawable() {
+        return this.drawable;
+    }
 }
@@ -1,9 +1,8 @@
 package fri.shapesge.drawables;
 
-import fri.shapesge.engine.Game;
-
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.Ellipse2D;
 
 public class EllipticalDrawable extends FilledDrawable {
@@ -21,7 +20,7 @@ public class EllipticalDrawable extends FilledDrawable {
         this.diameterX = newDiameterX;
         this.diameterY = newDiameterY;
 
-        Game.getGame().somethingHasChanged();
+        this.boundsChanged();
     }
 
     public int getDiameterX() {
@@ -32,6 +31,12 @@ public class EllipticalDrawable extends FilledDrawable {
         return this.diameterY;
     }
 
+    @Override
+    public boolean getBounds(Rectangle bounds) {
+        bounds.setBounds(this.getXPosition(), this.getYPosition(), this.diameterX, this.diameterY);
+        return true;
+    }
+
     @Override
     public void draw(Graphics2D canvas) {
         if (!this.isVisible()) {
@@ -42,4 +47,13 @@ public class EllipticalDrawable extends FilledDrawable {
         canvas.setColor(this.getColor());
         canvas.fill(shape);
     }
+
+    @Override
+    public void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        canvas.fillEllipse(this.getXPosition(), this.getYPosition(), this.diameterX, this.diameterY, this.getColor().getRGB());
+    }
 }
@@ -15,7 +15,7 @@ public abstract class FilledDrawable extends GameDrawable {
     public void changeColor(String newColor) {
         this.color = Game.getGame().getParser().parseColor(newColor);
 
-        Game.getGame().somethingHasChanged();
+        this.contentChanged();
     }
 
     protected Color getColor() {
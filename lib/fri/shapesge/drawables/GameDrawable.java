@@ -3,16 +3,28 @@ package fri.shapesge.drawables;
 import fri.shapesge.engine.Game;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public abstract class GameDrawable {
+    // flags of changes waiting for the engine, the drawable sits in the change journal while any is set
+    public static final int CONTENT_CHANGED = 1;
+    public static final int BOUNDS_CHANGED = 2;
+
+    private static final AtomicIntegerFieldUpdater<GameDrawable> PENDING_CHANGES = AtomicIntegerFieldUpdater.newUpdater(GameDrawable.class, "pendingChanges");
+
     private int xPosition;
     private int yPosition;
     private boolean isVisible;
+    private volatile int pendingChanges;
+    // a member of a group is drawn by the group and reports its changes to it
+    private GroupDrawable group;
 
     public GameDrawable(int x, int y) {
         this.xPosition = x;
         this.yPosition = y;
         this.isVisible = false;
+        this.group = null;
     }
 
     public void makeVisible() {
@@ -20,10 +32,12 @@ public abstract class GameDrawable {
             return;
         }
 
-        Game.getGame().registerDrawable(this);
+        if (this.group == null) {
+            Game.getGame().registerDrawable(this);
+        }
         this.isVisible = true;
 
-        Game.getGame().somethingHasChanged();
+        this.contentChanged();
     }
 
     public void makeInvisible() {
@@ -31,24 +45,82 @@ public abstract class GameDrawable {
             return;
         }
 
-        Game.getGame().unregisterDrawable(this);
+        if (this.group == null) {
+            Game.getGame().unregisterDrawable(this);
+        }
         this.isVisible = false;
 
-        Game.getGame().somethingHasChanged();
+        this.contentChanged();
     }
 
     public void moveTo(int newX, int newY) {
         this.xPosition = newX;
         this.yPosition = newY;
 
-        Game.getGame().somethingHasChanged();
+        this.boundsChanged();
     }
 
     public void moveBy(int dx, int dy) {
         this.xPosition = this.xPosition + dx;
         this.yPosition = this.yPosition + dy;
 
-        Game.getGame().somethingHasChanged();
+        this.boundsChanged();
+    }
+
+    protected void contentChanged() {
+        this.recordChange(CONTENT_CHANGED);
+    }
+
+    protected void boundsChanged() {
+        this.recordChange(BOUNDS_CHANGED);
+    }
+
+    private void recordChange(int change) {
+        var group = this.group;
+        if (group != null) {
+            group.memberChanged(change);
+            return;
+        }
+
+        for (;;) {
+            var pending = this.pendingChanges;
+            if ((pending & change) == change) {
+                return;
+            }
+
+            if (PENDING_CHANGES.compareAndSet(this, pending, pending | change)) {
+                // only the first change since the engine took the last ones goes to the journal
+                if (pending == 0) {
+                    Game.getGame().recordChange(this);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the changes recorded since the last call and clears them. Called by the engine once per frame.
+     */
+    public int takePendingChanges() {
+        return PENDING_CHANGES.getAndSet(this, 0);
+    }
+
+    void joinGroup(GroupDrawable group) {
+        if (this.isVisible) {
+            Game.getGame().unregisterDrawable(this);
+        }
+        this.group = group;
+    }
+
+    void leaveGroup() {
+        this.group = null;
+        if (this.isVisible) {
+            Game.getGame().registerDrawable(this);
+        }
+    }
+
+    GroupDrawable getGroup() {
+        return this.group;
     }
 
     public int getXPosition() {
@@ -64,5 +136,15 @@ public abstract class GameDrawable {
         return this.isVisible;
     }
 
+    /**
+     * Fills the axis-aligned bounds of this drawable in canvas coordinates.
+     * Returns false when the drawable cannot tell its bounds and has to be drawn every frame.
+     */
+    public boolean getBounds(Rectangle bounds) {
+        return false;
+    }
+
     public abstract void draw(Graphics2D canvas);
+
+    public abstract void rasterize(RasterCanvas canvas);
 }
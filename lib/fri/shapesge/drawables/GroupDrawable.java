@@ -0,0 +1,293 @@
+package fri.shapesge.drawables;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+/**
+ * Drawables placed in local coordinates of the group and drawn with the transform of the group.
+ * Members are not registered with the engine on their own, the group is indexed and drawn as one drawable,
+ * so moving, rotating or hiding the whole group is a single change.
+ */
+public class GroupDrawable extends GameDrawable {
+    private final ArrayList<GameDrawable> members;
+    private int angle;
+    private double sin;
+    private double cos;
+
+    // union of member bounds in local coordinates, recomputed only after a member moved
+    private final Rectangle localBounds;
+    private final Rectangle memberBounds;
+    private boolean localBoundsKnown;
+    private boolean localBoundsDirty;
+
+    private final GroupRasterCanvas rasterCanvas;
+
+    public GroupDrawable(int x, int y) {
+        super(x, y);
+
+        this.members = new ArrayList<>();
+        this.angle = 0;
+        this.sin = 0;
+        this.cos = 1;
+
+        this.localBounds = new Rectangle();
+        this.memberBounds = new Rectangle();
+        this.localBoundsKnown = true;
+        this.localBoundsDirty = false;
+
+        this.rasterCanvas = new GroupRasterCanvas();
+    }
+
+    public void add(GameDrawable member) {
+        for (GameDrawable group = this; group != null; group = group.getGroup()) {
+            if (group == member) {
+                throw new RuntimeException("Invalid group member");
+            }
+        }
+        if (member.getGroup() != null) {
+            throw new RuntimeException("Invalid group member");
+        }
+
+        member.joinGroup(this);
+        synchronized (this) {
+            this.members.add(member);
+            this.localBoundsDirty = true;
+        }
+
+        this.boundsChanged();
+    }
+
+    public void remove(GameDrawable member) {
+        synchronized (this) {
+            if (!this.members.remove(member)) {
+                return;
+            }
+            this.localBoundsDirty = true;
+        }
+        member.leaveGroup();
+
+        this.boundsChanged();
+    }
+
+    public void changeAngle(int angle) {
+        var radians = Math.toRadians(angle);
+        synchronized (this) {
+            this.angle = angle;
+            this.sin = Math.sin(radians);
+            this.cos = Math.cos(radians);
+        }
+
+        this.boundsChanged();
+    }
+
+    public int getAngle() {
+        return this.angle;
+    }
+
+    // called by members instead of recording their own changes
+    void memberChanged(int change) {
+        if ((change & BOUNDS_CHANGED) != 0) {
+            synchronized (this) {
+                this.localBoundsDirty = true;
+            }
+            this.boundsChanged();
+        } else {
+            this.contentChanged();
+        }
+    }
+
+    @Override
+    public synchronized boolean getBounds(Rectangle bounds) {
+        if (this.localBoundsDirty) {
+            this.computeLocalBounds();
+        }
+        if (!this.localBoundsKnown) {
+            return false;
+        }
+
+        var x = this.getXPosition();
+        var y = this.getYPosition();
+        var local = this.localBounds;
+        if (this.angle == 0) {
+            bounds.setBounds(x + local.x, y + local.y, local.width, local.height);
+            return true;
+        }
+
+        // axis-aligned box around the rotated corners
+        var minX = Double.MAX_VALUE;
+        var minY = Double.MAX_VALUE;
+        var maxX = -Double.MAX_VALUE;
+        var maxY = -Double.MAX_VALUE;
+        for (var corner = 0; corner < 4; corner++) {
+            var cornerX = (corner & 1) == 0 ? local.x : local.x + local.width;
+            var cornerY = (corner & 2) == 0 ? local.y : local.y + local.height;
+            var rotatedX = cornerX * this.cos - cornerY * this.sin;
+            var rotatedY = cornerX * this.sin + cornerY * this.cos;
+            minX = Math.min(minX, rotatedX);
+            minY = Math.min(minY, rotatedY);
+            maxX = Math.max(maxX, rotatedX);
+            maxY = Math.max(maxY, rotatedY);
+        }
+        var left = (int)Math.floor(minX);
+        var top = (int)Math.floor(minY);
+        bounds.setBounds(x + left, y + top, (int)Math.ceil(maxX) - left, (int)Math.ceil(maxY) - top);
+        return true;
+    }
+
+    private void computeLocalBounds() {
+        this.localBoundsDirty = false;
+        this.localBoundsKnown = true;
+        this.localBounds.setBounds(0, 0, 0, 0);
+
+        var first = true;
+        for (var i = 0; i < this.members.size(); i++) {
+            if (!this.members.get(i).getBounds(this.memberBounds)) {
+                // a member without bounds makes the whole group drawn every frame
+                this.localBoundsKnown = false;
+                return;
+            }
+
+            if (first) {
+                this.localBounds.setBounds(this.memberBounds);
+                first = false;
+            } else {
+                this.localBounds.add(this.memberBounds);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void draw(Graphics2D canvas) {
+        if (!this.isVisible() || this.members.isEmpty()) {
+            return;
+        }
+
+        var x = this.getXPosition();
+        var y = this.getYPosition();
+        var radians = Math.toRadians(this.angle);
+
+        // undone step by step afterwards, reading the transform of the canvas would copy it
+        canvas.translate(x, y);
+        if (this.angle != 0) {
+            canvas.rotate(radians);
+        }
+        try {
+            for (var i = 0; i < this.members.size(); i++) {
+                this.members.get(i).draw(canvas);
+            }
+        } finally {
+            if (this.angle != 0) {
+                canvas.rotate(-radians);
+            }
+            canvas.translate(-x, -y);
+        }
+    }
+
+    @Override
+    public synchronized void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible() || this.members.isEmpty()) {
+            return;
+        }
+
+        this.rasterCanvas.prepare(canvas, this.getXPosition(), this.getYPosition(), this.angle, this.sin, this.cos);
+        for (var i = 0; i < this.members.size(); i++) {
+            this.members.get(i).rasterize(this.rasterCanvas);
+        }
+    }
+
+    /**
+     * Maps primitives of the members into the coordinates of the canvas the group is rasterized on.
+     * Rotated rectangles become two triangles and rotated ellipses a fan of triangles.
+     */
+    private static class GroupRasterCanvas implements RasterCanvas {
+        private static final int ELLIPSE_SEGMENTS = 24;
+
+        private RasterCanvas target;
+        private int x;
+        private int y;
+        private int angle;
+        private double sin;
+        private double cos;
+
+        void prepare(RasterCanvas target, int x, int y, int angle, double sin, double cos) {
+            this.target = target;
+            this.x = x;
+            this.y = y;
+            this.angle = angle;
+            this.sin = sin;
+            this.cos = cos;
+        }
+
+        @Override
+        public void fillRect(int x, int y, int width, int height, int argb) {
+            if (this.angle == 0) {
+                this.target.fillRect(this.x + x, this.y + y, width, height, argb);
+                return;
+            }
+
+            this.fillTriangle(x, y, x + width, y, x + width, y + height, argb);
+            this.fillTriangle(x, y, x + width, y + height, x, y + height, argb);
+        }
+
+        @Override
+        public void fillEllipse(int x, int y, int width, int height, int argb) {
+            if (this.angle == 0) {
+                this.target.fillEllipse(this.x + x, this.y + y, width, height, argb);
+                return;
+            }
+
+            var centerX = x + width / 2.0;
+            var centerY = y + height / 2.0;
+            var previousX = centerX + width / 2.0;
+            var previousY = centerY;
+            for (var i = 1; i <= ELLIPSE_SEGMENTS; i++) {
+                var segmentAngle = 2 * Math.PI * i / ELLIPSE_SEGMENTS;
+                var nextX = centerX + Math.cos(segmentAngle) * width / 2.0;
+                var nextY = centerY + Math.sin(segmentAngle) * height / 2.0;
+                this.fillMappedTriangle(centerX, centerY, previousX, previousY, nextX, nextY, argb);
+                previousX = nextX;
+                previousY = nextY;
+            }
+        }
+
+        @Override
+        public void fillTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int argb) {
+            if (this.angle == 0) {
+                this.target.fillTriangle(this.x + x1, this.y + y1, this.x + x2, this.y + y2, this.x + x3, this.y + y3, argb);
+                return;
+            }
+
+            this.fillMappedTriangle(x1, y1, x2, y2, x3, y3, argb);
+        }
+
+        private void fillMappedTriangle(double x1, double y1, double x2, double y2, double x3, double y3, int argb) {
+            this.target.fillTriangle(
+                    this.mapX(x1, y1), this.mapY(x1, y1),
+                    this.mapX(x2, y2), this.mapY(x2, y2),
+                    this.mapX(x3, y3), this.mapY(x3, y3),
+                    argb
+            );
+        }
+
+        private int mapX(double x, double y) {
+            return (int)Math.round(this.x + x * this.cos - y * this.sin);
+        }
+
+        private int mapY(double x, double y) {
+            return (int)Math.round(this.y + x * this.sin + y * this.cos);
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, AffineTransform transform) {
+            var mapped = AffineTransform.getTranslateInstance(this.x, this.y);
+            if (this.angle != 0) {
+                mapped.rotate(Math.toRadians(this.angle));
+            }
+            mapped.concatenate(transform);
+            this.target.drawImage(image, mapped);
+        }
+    }
+}
@@ -3,21 +3,72 @@ package fri.shapesge.drawables;
 import fri.shapesge.engine.Game;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 
 public class ImageDrawable extends TranslatableDrawable {
     private BufferedImage image;
+    // page of an image atlas the image was packed into, the image itself is a view of its region
+    private BufferedImage atlasPage;
+    private int atlasX;
+    private int atlasY;
+    // pre-rotated variant of the image, null when the image is drawn through its transform
+    private ImageRotationCache.RotatedImage rotation;
+    // image and angle the rotation was looked up for, moving does not change them
+    private BufferedImage rotationSource;
+    private int rotationAngle;
 
     public ImageDrawable(int x, int y, int angle, BufferedImage image) {
+        this(x, y, angle, image, null, 0, 0);
+    }
+
+    public ImageDrawable(int x, int y, int angle, BufferedImage image, BufferedImage atlasPage, int atlasX, int atlasY) {
         super(x, y, angle);
         this.image = image;
+        this.atlasPage = atlasPage;
+        this.atlasX = atlasX;
+        this.atlasY = atlasY;
+        this.rotation = this.findRotation();
     }
 
     public void changeImage(BufferedImage image) {
+        this.changeImage(image, null, 0, 0);
+    }
+
+    public void changeImage(BufferedImage image, BufferedImage atlasPage, int atlasX, int atlasY) {
         this.image = image;
+        this.atlasPage = atlasPage;
+        this.atlasX = atlasX;
+        this.atlasY = atlasY;
+
+        this.boundsChanged();
+    }
+
+    @Override
+    protected void boundsChanged() {
+        // moving calls this too, the cache is only asked again when the image or the angle changes
+        if (this.image != this.rotationSource || this.getAngle() != this.rotationAngle) {
+            this.rotation = this.findRotation();
+        }
+
+        super.boundsChanged();
+    }
+
+    private ImageRotationCache.RotatedImage findRotation() {
+        this.rotationSource = this.image;
+        this.rotationAngle = this.getAngle();
+        if (this.image == null || this.getAngle() % 360 == 0) {
+            return null;
+        }
+
+        var rotationCache = Game.getGame().getImageRotationCache();
+        if (!rotationCache.isEnabled()) {
+            return null;
+        }
 
-        Game.getGame().somethingHasChanged();
+        return rotationCache.get(this.image, this.getAngle());
     }
 
     @Override
@@ -27,12 +78,70 @@ public class ImageDrawable extends TranslatableDrawable {
         return new Point2D.Double(centerX, centerY);
     }
 
+    @Override
+    public boolean getBounds(Rectangle bounds) {
+        var rotation = this.rotation;
+        var transform = this.getTransform();
+        if (rotation != null) {
+            bounds.setBounds(
+                    this.getXPosition() + rotation.getOffsetX(),
+                    this.getYPosition() + rotation.getOffsetY(),
+                    rotation.getImage().getWidth(),
+                    rotation.getImage().getHeight()
+            );
+        } else if (transform.getType() == AffineTransform.TYPE_IDENTITY || transform.getType() == AffineTransform.TYPE_TRANSLATION) {
+            bounds.setBounds(
+                    (int)transform.getTranslateX(),
+                    (int)transform.getTranslateY(),
+                    this.image.getWidth(),
+                    this.image.getHeight()
+            );
+        } else {
+            bounds.setBounds(transform.createTransformedShape(new Rectangle(this.image.getWidth(), this.image.getHeight())).getBounds());
+        }
+        return true;
+    }
+
     @Override
     public void draw(Graphics2D canvas) {
         if (!this.isVisible()) {
             return;
         }
 
-        canvas.drawImage(this.image, this.getTransform(), null);
+        var rotation = this.rotation;
+        if (rotation != null) {
+            canvas.drawImage(rotation.getImage(), this.getXPosition() + rotation.getOffsetX(), this.getYPosition() + rotation.getOffsetY(), null);
+        } else if (this.atlasPage != null && this.getAngle() == 0) {
+            // blit the region straight from the atlas page
+            var x = this.getXPosition();
+            var y = this.getYPosition();
+            var width = this.image.getWidth();
+            var height = this.image.getHeight();
+            canvas.drawImage(
+                    this.atlasPage,
+                    x, y, x + width, y + height,
+                    this.atlasX, this.atlasY, this.atlasX + width, this.atlasY + height,
+                    null
+            );
+        } else {
+            canvas.drawImage(this.image, this.getTransform(), null);
+        }
+    }
+
+    @Override
+    public void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        var rotation = this.rotation;
+        if (rotation != null) {
+            canvas.drawImage(rotation.getImage(), AffineTransform.getTranslateInstance(
+                    this.getXPosition() + rotation.getOffsetX(),
+                    this.getYPosition() + rotation.getOffsetY()
+            ));
+        } else {
+            canvas.drawImage(this.image, this.getTransform());
+        }
     }
 }
@@ -0,0 +1,150 @@
+package fri.shapesge.drawables;
+
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Keeps pre-rotated variants of images, so rotated sprites can be drawn as plain blits.
+ * Angles are quantized to a fixed step and the least recently used variants are evicted
+ * once the cached pixels exceed the memory budget.
+ */
+public class ImageRotationCache {
+    private final int angleStep;
+    private final long maxBytes;
+    private final IdentityHashMap<BufferedImage, RotatedImage[]> variantsByImage;
+    private final LinkedHashMap<RotatedImage, Boolean> recentlyUsed;
+    private long usedBytes;
+
+    public ImageRotationCache(int angleStep, long maxBytes) {
+        this.angleStep = angleStep;
+        this.maxBytes = maxBytes;
+        this.variantsByImage = new IdentityHashMap<>();
+        this.recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+        this.usedBytes = 0;
+    }
+
+    public boolean isEnabled() {
+        return this.angleStep > 0 && this.maxBytes > 0;
+    }
+
+    public synchronized RotatedImage get(BufferedImage image, int angle) {
+        var steps = 360 / this.angleStep;
+        var normalizedAngle = ((angle % 360) + 360) % 360;
+        var step = Math.round(normalizedAngle / (float)this.angleStep) % steps;
+        var variants = this.variantsByImage.computeIfAbsent(image, i -> new RotatedImage[steps]);
+        if (step == 0) {
+            // the angle is too small to show, the image is drawn as it is, the entry shares its pixels
+            if (variants[0] == null) {
+                variants[0] = new RotatedImage(image);
+            }
+            return variants[0];
+        }
+
+        var rotated = variants[step];
+        if (rotated != null) {
+            this.recentlyUsed.get(rotated);
+            return rotated;
+        }
+
+        rotated = new RotatedImage(image, step, step * this.angleStep);
+        variants[step] = rotated;
+        this.recentlyUsed.put(rotated, Boolean.TRUE);
+        this.usedBytes += rotated.getBytes();
+        this.evict(rotated);
+
+        return rotated;
+    }
+
+    private void evict(RotatedImage keep) {
+        var iterator = this.recentlyUsed.entrySet().iterator();
+        while (this.usedBytes > this.maxBytes && iterator.hasNext()) {
+            var eldest = iterator.next().getKey();
+            if (eldest == keep) {
+                continue;
+            }
+
+            iterator.remove();
+            this.usedBytes -= eldest.getBytes();
+
+            var variants = this.variantsByImage.get(eldest.source);
+            variants[eldest.step] = null;
+            if (isEmpty(variants)) {
+                this.variantsByImage.remove(eldest.source);
+            }
+        }
+    }
+
+    // the unrotated entry at step 0 costs no pixels, it does not keep the variants alive
+    private static boolean isEmpty(RotatedImage[] variants) {
+        for (var step = 1; step < variants.length; step++) {
+            if (variants[step] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static class RotatedImage {
+        private final BufferedImage source;
+        private final int step;
+        private final BufferedImage image;
+        private final int offsetX;
+        private final int offsetY;
+
+        RotatedImage(BufferedImage source) {
+            this.source = source;
+            this.step = 0;
+            this.image = source;
+            this.offsetX = 0;
+            this.offsetY = 0;
+        }
+
+        RotatedImage(BufferedImage source, int step, int angle) {
+            this.source = source;
+            this.step = step;
+
+            var radians = Math.toRadians(angle);
+            var sin = Math.abs(Math.sin(radians));
+            var cos = Math.abs(Math.cos(radians));
+            var width = source.getWidth();
+            var height = source.getHeight();
+            var rotatedWidth = (int)Math.ceil(width * cos + height * sin);
+            var rotatedHeight = (int)Math.ceil(width * sin + height * cos);
+
+            this.image = new BufferedImage(Math.max(rotatedWidth, 1), Math.max(rotatedHeight, 1), BufferedImage.TYPE_INT_ARGB_PRE);
+            // the rotated image shares its center with the source image
+            this.offsetX = (int)Math.round((width - rotatedWidth) / 2.0);
+            this.offsetY = (int)Math.round((height - rotatedHeight) / 2.0);
+
+            var canvas = this.image.createGraphics();
+            try {
+                canvas.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                canvas.translate(rotatedWidth / 2.0, rotatedHeight / 2.0);
+                canvas.rotate(radians);
+                canvas.translate(-width / 2.0, -height / 2.0);
+                canvas.drawImage(source, 0, 0, null);
+            } finally {
+                canvas.dispose();
+            }
+        }
+
+        public BufferedImage getImage() {
+            return this.image;
+        }
+
+        // position of the rotated image relative to the position of the unrotated one
+        public int getOffsetX() {
+            return this.offsetX;
+        }
+
+        public int getOffsetY() {
+            return this.offsetY;
+        }
+
+        long getBytes() {
+            return (long)this.image.getWidth() * this.image.getHeight() * 4;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package fri.shapesge.drawables;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+
+/**
+ * A filled convex polygon with points relative to its position.
+ * The points are replaced as a whole, so drawing never sees half of a change.
+ */
+public class PolygonalDrawable extends FilledDrawable {
+    private Points points;
+
+    public PolygonalDrawable(int x, int y, int[] xPoints, int[] yPoints, Color color) {
+        super(x, y, color);
+
+        this.points = PolygonalDrawable.createPoints(xPoints, yPoints);
+    }
+
+    public void changePoints(int[] xPoints, int[] yPoints) {
+        this.points = PolygonalDrawable.createPoints(xPoints, yPoints);
+
+        this.boundsChanged();
+    }
+
+    @Override
+    public boolean getBounds(Rectangle bounds) {
+        var local = this.points.bounds;
+        bounds.setBounds(this.getXPosition() + local.x, this.getYPosition() + local.y, local.width, local.height);
+        return true;
+    }
+
+    @Override
+    public void draw(Graphics2D canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        var x = this.getXPosition();
+        var y = this.getYPosition();
+        canvas.setColor(this.getColor());
+        canvas.translate(x, y);
+        try {
+            canvas.fill(this.points.polygon);
+        } finally {
+            canvas.translate(-x, -y);
+        }
+    }
+
+    @Override
+    public void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        // a convex polygon is a fan of triangles around its first point
+        var points = this.points.polygon;
+        var x = this.getXPosition();
+        var y = this.getYPosition();
+        var argb = this.getColor().getRGB();
+        for (var i = 2; i < points.npoints; i++) {
+            canvas.fillTriangle(
+                    x + points.xpoints[0], y + points.ypoints[0],
+                    x + points.xpoints[i - 1], y + points.ypoints[i - 1],
+                    x + points.xpoints[i], y + points.ypoints[i],
+                    argb
+            );
+        }
+    }
+
+    private static Points createPoints(int[] xPoints, int[] yPoints) {
+        if (xPoints.length != yPoints.length || xPoints.length < 3) {
+            throw new RuntimeException("Invalid polygon points");
+        }
+
+        var polygon = new Polygon(xPoints.clone(), yPoints.clone(), xPoints.length);
+        return new Points(polygon, polygon.getBounds());
+    }
+
+    // the points together with their bounds, swapped as one
+    private static class Points {
+        private final Polygon polygon;
+        private final Rectangle bounds;
+
+        Points(Polygon polygon, Rectangle bounds) {
+            this.polygon = polygon;
+            this.bounds = bounds;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package fri.shapesge.drawables;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Primitive sink used by the software renderer. Colors are packed ARGB values.
+ */
+public interface RasterCanvas {
+    void fillRect(int x, int y, int width, int height, int argb);
+
+    void fillEllipse(int x, int y, int width, int height, int argb);
+
+    void fillTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int argb);
+
+    void drawImage(BufferedImage image, AffineTransform transform);
+}
@@ -1,9 +1,8 @@
 package fri.shapesge.drawables;
 
-import fri.shapesge.engine.Game;
-
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
 
 public class RectangularDrawable extends FilledDrawable {
@@ -21,7 +20,7 @@ public class RectangularDrawable extends FilledDrawable {
         this.width = width;
         this.height = height;
 
-        Game.getGame().somethingHasChanged();
+        this.boundsChanged();
     }
 
     public int getWidth() {
@@ -32,6 +31,12 @@ public class RectangularDrawable extends FilledDrawable {
         return this.height;
     }
 
+    @Override
+    public boolean getBounds(Rectangle bounds) {
+        bounds.setBounds(this.getXPosition(), this.getYPosition(), this.width, this.height);
+        return true;
+    }
+
     @Override
     public void draw(Graphics2D canvas) {
         if (!this.isVisible()) {
@@ -42,4 +47,13 @@ public class RectangularDrawable extends FilledDrawable {
         canvas.setColor(this.getColor());
         canvas.fill(shape);
     }
+
+    @Override
+    public void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        canvas.fillRect(this.getXPosition(), this.getYPosition(), this.width, this.height, this.getColor().getRGB());
+    }
 }
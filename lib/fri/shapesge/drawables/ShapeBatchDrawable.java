@@ -0,0 +1,243 @@
+package fri.shapesge.drawables;
+
+import fri.shapesge.engine.Game;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * Many shapes of one kind kept in primitive arrays and drawn in a single pass.
+ * Shape coordinates are relative to the position of the batch.
+ * A batch usually spans the whole canvas, so it reports no bounds and culls its shapes against the clip instead.
+ */
+public class ShapeBatchDrawable extends GameDrawable {
+    public enum Shape {
+        SQUARE,
+        CIRCLE,
+        TRIANGLE
+    }
+
+    private final Shape shape;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] sizes;
+    private final int[] colorIndices;
+    private int count;
+    private Color[] palette;
+    private int[] paletteRGB;
+
+    // reused for triangles
+    private final int[] triangleX;
+    private final int[] triangleY;
+
+    public ShapeBatchDrawable(Shape shape, int capacity) {
+        super(0, 0);
+
+        if (capacity < 0) {
+            throw new RuntimeException("Invalid batch capacity");
+        }
+
+        this.shape = shape;
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.sizes = new int[capacity];
+        this.colorIndices = new int[capacity];
+        this.count = 0;
+        this.palette = new Color[] {Color.black};
+        this.paletteRGB = new int[] {Color.black.getRGB()};
+
+        this.triangleX = new int[3];
+        this.triangleY = new int[3];
+    }
+
+    public int getCapacity() {
+        return this.xs.length;
+    }
+
+    public synchronized int getCount() {
+        return this.count;
+    }
+
+    public void changePaletteColor(int colorIndex, String newColor) {
+        if (colorIndex < 0) {
+            throw new RuntimeException("Invalid color index");
+        }
+
+        var color = Game.getGame().getParser().parseColor(newColor);
+
+        synchronized (this) {
+            if (colorIndex >= this.palette.length) {
+                var oldLength = this.palette.length;
+                this.palette = Arrays.copyOf(this.palette, colorIndex + 1);
+                this.paletteRGB = Arrays.copyOf(this.paletteRGB, colorIndex + 1);
+                Arrays.fill(this.palette, oldLength, this.palette.length, Color.black);
+                Arrays.fill(this.paletteRGB, oldLength, this.paletteRGB.length, Color.black.getRGB());
+            }
+            this.palette[colorIndex] = color;
+            this.paletteRGB[colorIndex] = color.getRGB();
+        }
+
+        this.contentChanged();
+    }
+
+    public void changeCount(int count) {
+        synchronized (this) {
+            this.checkRange(0, count);
+            this.count = count;
+        }
+
+        this.contentChanged();
+    }
+
+    public void changeShape(int index, int x, int y, int size, int colorIndex) {
+        synchronized (this) {
+            this.checkRange(index, 1);
+            this.checkColorIndex(colorIndex);
+            this.xs[index] = x;
+            this.ys[index] = y;
+            this.sizes[index] = size;
+            this.colorIndices[index] = colorIndex;
+        }
+
+        this.contentChanged();
+    }
+
+    // copies count shapes from the arrays into the batch starting at index, any of the arrays may be null to keep the current values
+    public void changeShapes(int index, int[] x, int[] y, int[] size, int[] colorIndex, int count) {
+        synchronized (this) {
+            this.checkRange(index, count);
+            if (colorIndex != null) {
+                for (var i = 0; i < count; i++) {
+                    this.checkColorIndex(colorIndex[i]);
+                }
+                System.arraycopy(colorIndex, 0, this.colorIndices, index, count);
+            }
+            if (x != null) {
+                System.arraycopy(x, 0, this.xs, index, count);
+            }
+            if (y != null) {
+                System.arraycopy(y, 0, this.ys, index, count);
+            }
+            if (size != null) {
+                System.arraycopy(size, 0, this.sizes, index, count);
+            }
+        }
+
+        this.contentChanged();
+    }
+
+    public void moveShapes(int index, int[] dx, int[] dy, int count) {
+        synchronized (this) {
+            this.checkRange(index, count);
+            for (var i = 0; i < count; i++) {
+                this.xs[index + i] += dx[i];
+                this.ys[index + i] += dy[i];
+            }
+        }
+
+        this.contentChanged();
+    }
+
+    private void checkRange(int index, int count) {
+        if (index < 0 || count < 0 || index + count > this.xs.length) {
+            throw new RuntimeException("Invalid shape index");
+        }
+    }
+
+    private void checkColorIndex(int colorIndex) {
+        if (colorIndex < 0 || colorIndex >= this.palette.length) {
+            throw new RuntimeException("Invalid color index");
+        }
+    }
+
+    @Override
+    public synchronized void draw(Graphics2D canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        var offsetX = this.getXPosition();
+        var offsetY = this.getYPosition();
+
+        var minX = Integer.MIN_VALUE;
+        var minY = Integer.MIN_VALUE;
+        var maxX = Integer.MAX_VALUE;
+        var maxY = Integer.MAX_VALUE;
+        var clip = canvas.getClipBounds();
+        if (clip != null) {
+            minX = clip.x;
+            minY = clip.y;
+            maxX = clip.x + clip.width;
+            maxY = clip.y + clip.height;
+        }
+
+        var currentColor = -1;
+        for (var i = 0; i < this.count; i++) {
+            var size = this.sizes[i];
+            var x = offsetX + this.xs[i];
+            var y = offsetY + this.ys[i];
+            // triangles are centered on x
+            var left = this.shape == Shape.TRIANGLE ? x - size / 2 : x;
+            if (size <= 0 || left >= maxX || y >= maxY || left + size <= minX || y + size <= minY) {
+                continue;
+            }
+
+            if (this.colorIndices[i] != currentColor) {
+                currentColor = this.colorIndices[i];
+                canvas.setColor(this.palette[currentColor]);
+            }
+
+            switch (this.shape) {
+                case SQUARE:
+                    canvas.fillRect(x, y, size, size);
+                    break;
+                case CIRCLE:
+                    canvas.fillOval(x, y, size, size);
+                    break;
+                case TRIANGLE:
+                    this.triangleX[0] = x;
+                    this.triangleY[0] = y;
+                    this.triangleX[1] = x + size / 2;
+                    this.triangleY[1] = y + size;
+                    this.triangleX[2] = x - size / 2;
+                    this.triangleY[2] = y + size;
+                    canvas.fillPolygon(this.triangleX, this.triangleY, 3);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        var offsetX = this.getXPosition();
+        var offsetY = this.getYPosition();
+
+        for (var i = 0; i < this.count; i++) {
+            var size = this.sizes[i];
+            if (size <= 0) {
+                continue;
+            }
+
+            var x = offsetX + this.xs[i];
+            var y = offsetY + this.ys[i];
+            var color = this.paletteRGB[this.colorIndices[i]];
+
+            switch (this.shape) {
+                case SQUARE:
+                    canvas.fillRect(x, y, size, size, color);
+                    break;
+                case CIRCLE:
+                    canvas.fillEllipse(x, y, size, size, color);
+                    break;
+                case TRIANGLE:
+                    canvas.fillTriangle(x, y, x + size / 2, y + size, x - size / 2, y + size, color);
+                    break;
+            }
+        }
+    }
+}
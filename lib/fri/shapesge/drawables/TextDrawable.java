@@ -1,17 +1,26 @@
 package fri.shapesge.drawables;
 
-import fri.shapesge.engine.Game;
-
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.font.TextAttribute;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.HashMap;
 
 public class TextDrawable extends FilledDrawable {
     private String[] text;
     private Font font;
 
+    // text pre-rendered for the software renderer, valid while text, font and color are unchanged
+    private BufferedImage rasterImage;
+    private String[] rasterText;
+    private Font rasterFont;
+    private Color rasterColor;
+    private int rasterAscent;
+    private AffineTransform rasterTransform;
+
     public TextDrawable(int x, int y, Color color, String text, Font font) {
         super(x, y, color);
 
@@ -40,18 +49,18 @@ public class TextDrawable extends FilledDrawable {
             this.font = newFont;
         }
 
-        Game.getGame().somethingHasChanged();
+        this.contentChanged();
     }
 
     public void changeFontSize(int size) {
         this.font = this.font.deriveFont((float) size);
-        Game.getGame().somethingHasChanged();
+        this.contentChanged();
     }
 
     public void changeText(String text) {
         this.text = text.split("\n");
 
-        Game.getGame().somethingHasChanged();
+        this.contentChanged();
     }
 
     @Override
@@ -67,4 +76,70 @@ public class TextDrawable extends FilledDrawable {
             y += lineHeight;
         }
     }
+
+    @Override
+    public void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        if (this.rasterText != this.text || this.rasterFont != this.font || this.rasterColor != this.getColor()) {
+            this.renderRasterImage();
+        }
+
+        if (this.rasterImage == null) {
+            return;
+        }
+
+        var x = this.getXPosition();
+        var y = this.getYPosition() - this.rasterAscent;
+        if (this.rasterTransform == null || this.rasterTransform.getTranslateX() != x || this.rasterTransform.getTranslateY() != y) {
+            this.rasterTransform = AffineTransform.getTranslateInstance(x, y);
+        }
+
+        canvas.drawImage(this.rasterImage, this.rasterTransform);
+    }
+
+    private void renderRasterImage() {
+        this.rasterText = this.text;
+        this.rasterFont = this.font;
+        this.rasterColor = this.getColor();
+
+        var metricsGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics metrics;
+        try {
+            metrics = metricsGraphics.getFontMetrics(this.font);
+        } finally {
+            metricsGraphics.dispose();
+        }
+
+        var width = 0;
+        for (String line : this.text) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        var lineHeight = metrics.getHeight();
+        var height = metrics.getAscent() + (this.text.length - 1) * lineHeight + metrics.getDescent();
+
+        if (width <= 0 || height <= 0) {
+            this.rasterImage = null;
+            return;
+        }
+
+        this.rasterAscent = metrics.getAscent();
+        this.rasterImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        var graphics = this.rasterImage.createGraphics();
+        try {
+            graphics.setColor(this.rasterColor);
+            graphics.setFont(this.font);
+
+            var y = this.rasterAscent;
+            for (String line : this.text) {
+                graphics.drawString(line, 0, y);
+                y += lineHeight;
+            }
+        } finally {
+            graphics.dispose();
+        }
+    }
 }
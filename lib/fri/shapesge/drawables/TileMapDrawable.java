@@ -0,0 +1,265 @@
+package fri.shapesge.drawables;
+
+import fri.shapesge.engine.Game;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A grid of colored tiles drawn as a single drawable. Tile 0 is empty, other tile ids index the palette.
+ * Changing a tile only marks it dirty, the grid stays registered as one drawable.
+ */
+public class TileMapDrawable extends GameDrawable {
+    private static final Color EMPTY_TILE = new Color(0, 0, 0, 0);
+
+    private final int columns;
+    private final int rows;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final int[] tiles;
+    private final int[] rowTileCounts;
+    private Color[] palette;
+
+    // row caching keeps every row pre-rendered in an image and redraws only its dirty tiles
+    private boolean rowCaching;
+    private final BufferedImage[] rowImages;
+    private final BitSet dirtyTiles;
+    private final BitSet dirtyRows;
+
+    public TileMapDrawable(int x, int y, int columns, int rows, int cellWidth, int cellHeight, int tileWidth, int tileHeight) {
+        super(x, y);
+
+        if (columns <= 0 || rows <= 0 || tileWidth > cellWidth || tileHeight > cellHeight) {
+            throw new RuntimeException("Invalid tile map size");
+        }
+
+        this.columns = columns;
+        this.rows = rows;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tiles = new int[columns * rows];
+        this.rowTileCounts = new int[rows];
+        this.palette = new Color[] {EMPTY_TILE};
+
+        this.rowCaching = false;
+        this.rowImages = new BufferedImage[rows];
+        this.dirtyTiles = new BitSet(columns * rows);
+        this.dirtyRows = new BitSet(rows);
+    }
+
+    public void changeTileColor(int tileId, String newColor) {
+        if (tileId <= 0) {
+            throw new RuntimeException("Invalid tile id");
+        }
+
+        var color = Game.getGame().getParser().parseColor(newColor);
+
+        synchronized (this) {
+            if (tileId >= this.palette.length) {
+                var oldLength = this.palette.length;
+                this.palette = Arrays.copyOf(this.palette, tileId + 1);
+                Arrays.fill(this.palette, oldLength, this.palette.length, EMPTY_TILE);
+            }
+            this.palette[tileId] = color;
+
+            this.markAllDirty();
+        }
+
+        this.contentChanged();
+    }
+
+    public void changeTile(int column, int row, int tileId) {
+        var index = this.getIndex(column, row);
+
+        synchronized (this) {
+            if (tileId < 0 || tileId >= this.palette.length) {
+                throw new RuntimeException("Invalid tile id");
+            }
+
+            var oldTileId = this.tiles[index];
+            if (oldTileId == tileId) {
+                return;
+            }
+
+            this.tiles[index] = tileId;
+            if (oldTileId == 0) {
+                this.rowTileCounts[row]++;
+            } else if (tileId == 0) {
+                this.rowTileCounts[row]--;
+            }
+
+            this.dirtyTiles.set(index);
+            this.dirtyRows.set(row);
+        }
+
+        this.contentChanged();
+    }
+
+    public synchronized int getTile(int column, int row) {
+        return this.tiles[this.getIndex(column, row)];
+    }
+
+    public synchronized void changeRowCaching(boolean rowCaching) {
+        this.rowCaching = rowCaching;
+        Arrays.fill(this.rowImages, null);
+        this.markAllDirty();
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getCellWidth() {
+        return this.cellWidth;
+    }
+
+    public int getCellHeight() {
+        return this.cellHeight;
+    }
+
+    public int getTileWidth() {
+        return this.tileWidth;
+    }
+
+    public int getTileHeight() {
+        return this.tileHeight;
+    }
+
+    private int getIndex(int column, int row) {
+        if (column < 0 || column >= this.columns || row < 0 || row >= this.rows) {
+            throw new RuntimeException("Invalid tile position");
+        }
+
+        return row * this.columns + column;
+    }
+
+    private void markAllDirty() {
+        this.dirtyTiles.set(0, this.tiles.length);
+        this.dirtyRows.set(0, this.rows);
+    }
+
+    @Override
+    public boolean getBounds(Rectangle bounds) {
+        bounds.setBounds(this.getXPosition(), this.getYPosition(), this.columns * this.cellWidth, this.rows * this.cellHeight);
+        return true;
+    }
+
+    @Override
+    public synchronized void draw(Graphics2D canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        var x = this.getXPosition();
+        var y = this.getYPosition();
+
+        // only the rows crossing the clip are drawn
+        var firstRow = 0;
+        var lastRow = this.rows - 1;
+        var clip = canvas.getClipBounds();
+        if (clip != null) {
+            firstRow = Math.max(firstRow, Math.floorDiv(clip.y - y, this.cellHeight));
+            lastRow = Math.min(lastRow, Math.floorDiv(clip.y + clip.height - y, this.cellHeight));
+        }
+
+        for (var row = firstRow; row <= lastRow; row++) {
+            if (this.rowTileCounts[row] == 0) {
+                continue;
+            }
+
+            var rowY = y + row * this.cellHeight;
+            if (this.rowCaching) {
+                if (this.rowImages[row] == null || this.dirtyRows.get(row)) {
+                    this.renderRow(canvas, row);
+                }
+                canvas.drawImage(this.rowImages[row], x, rowY, null);
+            } else {
+                this.drawRow(canvas, row, x, rowY);
+            }
+        }
+    }
+
+    private void drawRow(Graphics2D canvas, int row, int x, int y) {
+        var base = row * this.columns;
+        var mergeRuns = this.tileWidth == this.cellWidth;
+
+        for (var column = 0; column < this.columns; column++) {
+            var tileId = this.tiles[base + column];
+            if (tileId == 0) {
+                continue;
+            }
+
+            // touching tiles of the same color are filled at once
+            var runEnd = column + 1;
+            while (mergeRuns && runEnd < this.columns && this.tiles[base + runEnd] == tileId) {
+                runEnd++;
+            }
+
+            canvas.setColor(this.palette[tileId]);
+            canvas.fillRect(x + column * this.cellWidth, y, (runEnd - column - 1) * this.cellWidth + this.tileWidth, this.tileHeight);
+            column = runEnd - 1;
+        }
+    }
+
+    private void renderRow(Graphics2D canvas, int row) {
+        var rowImage = this.rowImages[row];
+        var base = row * this.columns;
+
+        if (rowImage == null) {
+            rowImage = canvas.getDeviceConfiguration().createCompatibleImage(this.columns * this.cellWidth, this.tileHeight, Transparency.TRANSLUCENT);
+            this.rowImages[row] = rowImage;
+            this.dirtyTiles.set(base, base + this.columns);
+        }
+
+        var rowCanvas = rowImage.createGraphics();
+        try {
+            rowCanvas.setComposite(AlphaComposite.Src);
+            for (var index = this.dirtyTiles.nextSetBit(base); index >= 0 && index < base + this.columns; index = this.dirtyTiles.nextSetBit(index + 1)) {
+                rowCanvas.setColor(this.palette[this.tiles[index]]);
+                rowCanvas.fillRect((index - base) * this.cellWidth, 0, this.tileWidth, this.tileHeight);
+            }
+        } finally {
+            rowCanvas.dispose();
+        }
+
+        this.dirtyTiles.clear(base, base + this.columns);
+        this.dirtyRows.clear(row);
+    }
+
+    @Override
+    public synchronized void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        var x = this.getXPosition();
+        var y = this.getYPosition();
+        for (var row = 0; row < this.rows; row++) {
+            if (this.rowTileCounts[row] == 0) {
+                continue;
+            }
+
+            var base = row * this.columns;
+            for (var column = 0; column < this.columns; column++) {
+                var tileId = this.tiles[base + column];
+                if (tileId != 0) {
+                    canvas.fillRect(x + column * this.cellWidth, y + row * this.cellHeight, this.tileWidth, this.tileHeight, this.palette[tileId].getRGB());
+                }
+            }
+        }
+    }
+}
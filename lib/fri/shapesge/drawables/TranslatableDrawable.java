@@ -1,7 +1,5 @@
 package fri.shapesge.drawables;
 
-import fri.shapesge.engine.Game;
-
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 
@@ -21,25 +19,16 @@ public abstract class TranslatableDrawable extends GameDrawable {
     }
 
     @Override
-    public void moveTo(int newX, int newY) {
-        super.moveTo(newX, newY);
-
+    protected void boundsChanged() {
         this.computeTransformation();
-    }
-
-    @Override
-    public void moveBy(int dx, int dy) {
-        super.moveBy(dx, dy);
 
-        this.computeTransformation();
+        super.boundsChanged();
     }
 
     public void changeAngle(int angle) {
         this.angle = angle;
 
-        this.computeTransformation();
-
-        Game.getGame().somethingHasChanged();
+        this.boundsChanged();
     }
 
     private void computeTransformation() {
@@ -57,6 +46,10 @@ public abstract class TranslatableDrawable extends GameDrawable {
         }
     }
 
+    protected int getAngle() {
+        return this.angle;
+    }
+
     protected AffineTransform getTransform() {
         return this.transform;
     }
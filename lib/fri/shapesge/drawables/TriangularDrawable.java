@@ -1,10 +1,9 @@
 package fri.shapesge.drawables;
 
-import fri.shapesge.engine.Game;
-
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 
 public class TriangularDrawable extends FilledDrawable {
     private int width;
@@ -21,7 +20,13 @@ public class TriangularDrawable extends FilledDrawable {
         this.width = width;
         this.height = height;
 
-        Game.getGame().somethingHasChanged();
+        this.boundsChanged();
+    }
+
+    @Override
+    public boolean getBounds(Rectangle bounds) {
+        bounds.setBounds(this.getXPosition() - this.width / 2, this.getYPosition(), this.width, this.height);
+        return true;
     }
 
     @Override
@@ -36,4 +41,18 @@ public class TriangularDrawable extends FilledDrawable {
         canvas.setColor(this.getColor());
         canvas.fill(shape);
     }
+
+    @Override
+    public void rasterize(RasterCanvas canvas) {
+        if (!this.isVisible()) {
+            return;
+        }
+
+        canvas.fillTriangle(
+                this.getXPosition(), this.getYPosition(),
+                this.getXPosition() + (this.width / 2), this.getYPosition() + this.height,
+                this.getXPosition() - this.width / 2, this.getYPosition() + this.height,
+                this.getColor().getRGB()
+        );
+    }
 }
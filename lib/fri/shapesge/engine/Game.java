@@ -1,8 +1,12 @@
 package fri.shapesge.engine;
 
 import fri.shapesge.drawables.GameDrawable;
+import fri.shapesge.drawables.ImageRotationCache;
 import fri.shapesge.engine.soundsystem.GameSoundSystem;
 
+import java.awt.image.BufferedImage;
+import java.util.List;
+
 public class Game {
     private static final Game INSTANCE = new Game();
 
@@ -19,19 +23,27 @@ public class Game {
     private final GameFPSCounter gameFPSCounter;
     private final GameLoop gameLoop;
     private final GameEventDispatcher gameEventDispatcher;
-    @SuppressWarnings("FieldCanBeLocal")
     private final GameInputProcessor gameInputProcessor;
     @SuppressWarnings("FieldCanBeLocal")
     private final GameTimerProcessor gameTimerProcessor;
     private final GameObjects gameObjects;
+    private final GameChangeJournal changeJournal;
     private final GameWindow gameWindow;
+    private final GameSoftwareRenderer softwareRenderer;
     private final GameSoundSystem gameSoundSystem;
+    private final ImageRotationCache imageRotationCache;
 
     private Game() {
         var gameConfig = new GameConfig();
 
         this.gameParser = new GameParser(gameConfig);
         this.gameObjects = new GameObjects();
+        this.changeJournal = new GameChangeJournal();
+        this.imageRotationCache = new ImageRotationCache(
+                this.gameParser.parseRotationCacheStep(gameConfig.get(GameConfig.IMAGES_SECTION, GameConfig.ROTATION_CACHE_STEP)),
+                // the size is configured in kilobytes
+                gameConfig.getInt(GameConfig.IMAGES_SECTION, GameConfig.ROTATION_CACHE_SIZE) * 1024L
+        );
         this.gameEventDispatcher = new GameEventDispatcher();
         this.gameInputProcessor = new GameInputProcessor(
                 this.gameEventDispatcher,
@@ -43,20 +55,33 @@ public class Game {
                 gameConfig
         );
         this.gameFPSCounter = new GameFPSCounter();
+        var frameStats = new GameFrameStats();
+        this.softwareRenderer = new GameSoftwareRenderer(
+                this.gameObjects,
+                gameConfig.getInt(GameConfig.WINDOW_SECTION, GameConfig.WINDOW_WIDTH),
+                gameConfig.getInt(GameConfig.WINDOW_SECTION, GameConfig.WINDOW_HEIGHT),
+                this.gameParser.parseColor(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.CANVAS_BACKGROUND))
+        );
         this.gameWindow = new GameWindow(
                 this.gameObjects,
                 this.gameInputProcessor,
                 this.gameFPSCounter,
                 gameConfig,
                 this.gameParser,
-                this.gameEventDispatcher
+                this.gameEventDispatcher,
+                this.softwareRenderer,
+                frameStats
         );
         this.gameSoundSystem = new GameSoundSystem(this.gameParser);
         this.gameLoop = new GameLoop(
                 this.gameWindow,
+                this.gameObjects,
+                this.changeJournal,
                 this.gameTimerProcessor,
                 this.gameEventDispatcher,
+                this.gameInputProcessor,
                 this.gameFPSCounter,
+                frameStats,
                 gameConfig
         );
     }
@@ -66,14 +91,19 @@ public class Game {
         this.gameLoop.start();
     }
 
-    public void somethingHasChanged() {
-        this.gameWindow.showIfNeeded();
+    // called by a drawable on its first change since the last frame
+    public void recordChange(GameDrawable drawable) {
+        this.changeJournal.record(drawable);
     }
 
     public GameParser getParser() {
         return this.gameParser;
     }
 
+    public ImageRotationCache getImageRotationCache() {
+        return this.imageRotationCache;
+    }
+
     public void registerDrawable(GameDrawable drawable) {
         this.gameObjects.registerDrawable(drawable);
     }
@@ -82,6 +112,48 @@ public class Game {
         this.gameObjects.unregisterDrawable(drawable);
     }
 
+    public void findDrawablesAt(int x, int y, List<GameDrawable> result) {
+        this.changeJournal.process(this.gameObjects);
+        this.gameObjects.findDrawables(x, y, 1, 1, result);
+    }
+
+    public void findDrawablesIn(int x, int y, int width, int height, List<GameDrawable> result) {
+        this.changeJournal.process(this.gameObjects);
+        this.gameObjects.findDrawables(x, y, width, height, result);
+    }
+
+    public long getTimerInterval(String message) {
+        return this.gameTimerProcessor.getInterval(message);
+    }
+
+    public boolean isKeyDown(int keyCode) {
+        return this.gameInputProcessor.isKeyDown(keyCode);
+    }
+
+    public boolean isButtonDown(int button) {
+        return this.gameInputProcessor.isButtonDown(button);
+    }
+
+    public long takeKeyHeldTime(int keyCode) {
+        return this.gameInputProcessor.takeKeyHeldTime(keyCode);
+    }
+
+    public long takeButtonHeldTime(int button) {
+        return this.gameInputProcessor.takeButtonHeldTime(button);
+    }
+
+    public boolean hasPointer() {
+        return this.gameInputProcessor.hasPointer();
+    }
+
+    public int getPointerX() {
+        return this.gameInputProcessor.getPointerX();
+    }
+
+    public int getPointerY() {
+        return this.gameInputProcessor.getPointerY();
+    }
+
     public void registerEventTarget(Object target) {
         this.gameEventDispatcher.registerTarget(target);
     }
@@ -90,6 +162,13 @@ public class Game {
         this.gameEventDispatcher.deregisterTarget(target);
     }
 
+    // renders the current frame with the software renderer, also available when running headless;
+    // the returned image is reused by the next call
+    public BufferedImage renderFrame() {
+        this.changeJournal.process(this.gameObjects);
+        return this.softwareRenderer.render();
+    }
+
     public GameSoundSystem getGameSoundSystem() {
         return this.gameSoundSystem;
     }
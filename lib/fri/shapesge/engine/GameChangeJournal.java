@@ -0,0 +1,32 @@
+package fri.shapesge.engine;
+
+import fri.shapesge.drawables.GameDrawable;
+
+import java.util.ArrayList;
+
+/**
+ * Drawables changed since the last frame. A drawable is recorded once, on its first change,
+ * the game loop then takes all of them at once before drawing.
+ */
+class GameChangeJournal {
+    private final ArrayList<GameDrawable> recorded;
+
+    GameChangeJournal() {
+        this.recorded = new ArrayList<>();
+    }
+
+    public synchronized void record(GameDrawable drawable) {
+        this.recorded.add(drawable);
+    }
+
+    // applies recorded changes to the game objects, returns false when nothing has changed
+    public synchronized boolean process(GameObjects gameObjects) {
+        if (this.recorded.isEmpty()) {
+            return false;
+        }
+
+        gameObjects.applyChanges(this.recorded);
+        this.recorded.clear();
+        return true;
+    }
+}
@@ -13,17 +13,33 @@ class GameConfig {
     public static final String CANVAS_BACKGROUND = "Background";
     public static final String FPS = "FPS";
     public static final String SHOW_INFO = "ShowInfo";
+    public static final String INFO_TOGGLE_KEY = "InfoToggleKey";
     public static final String FULLSCREEN = "Fullscreen";
+    public static final String FULLSCREEN_SCALING = "FullscreenScaling";
+    public static final String FULLSCREEN_FILTER = "FullscreenFilter";
     public static final String EXIT_ON_CLOSE = "ExitOnClose";
     public static final String ON_CLOSE = "OnClose";
+    public static final String RENDERER = "Renderer";
+    public static final String RENDERER_JAVA2D = "java2d";
+    public static final String RENDERER_SOFTWARE = "software";
 
     public static final String SHAPES_SECTION = "Shapes";
     public static final String IMAGE_SOURCE = "ImageSource";
 
+    public static final String IMAGES_SECTION = "Images";
+    public static final String ROTATION_CACHE_STEP = "RotationCacheStep";
+    public static final String ROTATION_CACHE_SIZE = "RotationCacheSize";
+
     public static final String KEYBOARD_SECTION = "Keyboard";
 
     public static final String MOUSE_SECTION = "Mouse";
 
+    public static final String CAPTURE_SECTION = "Capture";
+    public static final String CAPTURE_MODE = "Mode";
+    public static final String CAPTURE_DIRECTORY = "Directory";
+    public static final String CAPTURE_BUFFERS = "Buffers";
+    public static final String CAPTURE_DROP_POLICY = "DropPolicy";
+
     public static final String TIMER_SECTION = "Timers";
     public static final String COLORS_SECTION = "Colors";
 
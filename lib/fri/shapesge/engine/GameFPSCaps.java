@@ -15,6 +15,11 @@ class GameFPSCaps {
     }
 
     public void doWait() {
+        // zero or less means the frame rate is not capped
+        if (this.fpsCaps <= 0) {
+            return;
+        }
+
         var currentNanoseconds = System.nanoTime();
 
         var sleepTime = this.getSleepTime(currentNanoseconds);
@@ -0,0 +1,181 @@
+package fri.shapesge.engine;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records presented frames to disk. The render thread only copies pixels into a free buffer
+ * of a preallocated ring, encoding and I/O happen on a background writer thread.
+ * When no buffer is free, either the new frame or the oldest queued frame is dropped.
+ * A write error stops the capture, frames still queued when the program exits are written before it ends.
+ */
+class GameFrameCapture {
+    enum Format {
+        PNG,
+        RAW
+    }
+
+    private final Format format;
+    private final File directory;
+    private final boolean dropOldest;
+    private final int width;
+    private final int height;
+    private final BufferedImage[] buffers;
+    private final int[][] bufferPixels;
+    private final long[] bufferFrames;
+    private final ArrayBlockingQueue<Integer> freeBuffers;
+    private final ArrayBlockingQueue<Integer> queuedBuffers;
+    private final AtomicLong writtenFrames;
+    private final AtomicLong droppedFrames;
+    private final Thread writer;
+    // set once the capture ends, by closing or by a write error
+    private volatile boolean closed;
+    private volatile boolean failed;
+    private long frameNumber;
+
+    GameFrameCapture(Format format, File directory, int bufferCount, boolean dropOldest, int width, int height) {
+        this.format = format;
+        this.directory = directory;
+        this.dropOldest = dropOldest;
+        this.width = width;
+        this.height = height;
+
+        var count = Math.max(2, bufferCount);
+        this.buffers = new BufferedImage[count];
+        this.bufferPixels = new int[count][];
+        this.bufferFrames = new long[count];
+        this.freeBuffers = new ArrayBlockingQueue<>(count);
+        this.queuedBuffers = new ArrayBlockingQueue<>(count);
+
+        for (var i = 0; i < count; i++) {
+            this.buffers[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.bufferPixels[i] = ((DataBufferInt)this.buffers[i].getRaster().getDataBuffer()).getData();
+            this.freeBuffers.add(i);
+        }
+
+        this.writtenFrames = new AtomicLong();
+        this.droppedFrames = new AtomicLong();
+        this.frameNumber = 0;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new ShapesGEException("Cannot create capture directory " + directory);
+        }
+
+        this.closed = false;
+        this.failed = false;
+        this.writer = new Thread(this::writeLoop, "frame-capture");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        // the writer is a daemon, without the hook frames queued at exit would be lost
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "frame-capture-shutdown"));
+    }
+
+    // called from the render thread, pixels has to hold width * height RGB values
+    public void capture(int[] pixels) {
+        if (this.closed) {
+            return;
+        }
+        var frame = this.frameNumber++;
+
+        var buffer = this.freeBuffers.poll();
+        if (buffer == null && this.dropOldest) {
+            // reuse the oldest frame the writer has not picked up yet
+            buffer = this.queuedBuffers.poll();
+            if (buffer != null) {
+                this.droppedFrames.incrementAndGet();
+            }
+        }
+
+        if (buffer == null) {
+            this.droppedFrames.incrementAndGet();
+            return;
+        }
+
+        System.arraycopy(pixels, 0, this.bufferPixels[buffer], 0, this.width * this.height);
+        this.bufferFrames[buffer] = frame;
+        this.queuedBuffers.add(buffer);
+    }
+
+    public long getWrittenFrames() {
+        return this.writtenFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return this.droppedFrames.get();
+    }
+
+    public boolean hasFailed() {
+        return this.failed;
+    }
+
+    // stops capturing and waits until the writer has written the queued frames and closed its file
+    public void close() {
+        this.closed = true;
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try (var raw = this.format == Format.RAW ? new FileOutputStream(new File(this.directory, "frames.raw")).getChannel() : null) {
+            var rawBuffer = this.format == Format.RAW ? ByteBuffer.allocateDirect(this.width * this.height * 4) : null;
+
+            // after closing, the frames already queued are still written
+            while (!this.closed || !this.queuedBuffers.isEmpty()) {
+                var buffer = this.queuedBuffers.poll(100, TimeUnit.MILLISECONDS);
+                if (buffer == null) {
+                    continue;
+                }
+                try {
+                    this.write(buffer, raw, rawBuffer);
+                    this.writtenFrames.incrementAndGet();
+                } finally {
+                    this.freeBuffers.add(buffer);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // a full disk, a removed directory or a missing writer fails every later frame too, so the capture stops
+            this.failed = true;
+            this.closed = true;
+            //noinspection CallToPrintStackTrace
+            new ShapesGEException("Frame capture to " + this.directory + " failed, capturing stopped.", e).printStackTrace();
+        }
+    }
+
+    private void write(int buffer, FileChannel raw, ByteBuffer rawBuffer) throws IOException {
+        switch (this.format) {
+            case PNG:
+                var file = new File(this.directory, String.format("frame-%06d.png", this.bufferFrames[buffer]));
+                // without a writer for the format nothing is written, later frames would not be either
+                if (!ImageIO.write(this.buffers[buffer], "png", file)) {
+                    throw new IOException("No image writer for png");
+                }
+                break;
+            case RAW:
+                // frames are stored back to back as big-endian opaque ARGB ints
+                rawBuffer.clear();
+                for (int pixel : this.bufferPixels[buffer]) {
+                    rawBuffer.putInt(pixel | 0xFF000000);
+                }
+                rawBuffer.flip();
+                while (rawBuffer.hasRemaining()) {
+                    raw.write(rawBuffer);
+                }
+                break;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package fri.shapesge.engine;
+
+/**
+ * Frame times and per-phase times of the last frames in preallocated rings.
+ * All methods are called from the game loop thread.
+ */
+class GameFrameStats {
+    public static final int TIMERS = 0;
+    public static final int DISPATCH = 1;
+    public static final int DRAW = 2;
+    public static final int PRESENT = 3;
+    public static final int PHASE_COUNT = 4;
+
+    public static final int FRAME_COUNT = 240;
+
+    private final long[] frameTimes;
+    private final long[][] phaseTimes;
+    // slot of the frame being recorded, the slots before it hold finished frames
+    private int current;
+    private int finished;
+    private long frameStart;
+    private long phaseStart;
+
+    GameFrameStats() {
+        this.frameTimes = new long[FRAME_COUNT];
+        this.phaseTimes = new long[PHASE_COUNT][FRAME_COUNT];
+        this.current = 0;
+        this.finished = 0;
+        this.frameStart = 0;
+    }
+
+    public void beginFrame() {
+        var now = System.nanoTime();
+
+        if (this.frameStart != 0) {
+            this.frameTimes[this.current] = now - this.frameStart;
+            this.current = (this.current + 1) % FRAME_COUNT;
+            this.finished = Math.min(this.finished + 1, FRAME_COUNT - 1);
+
+            for (var phase = 0; phase < PHASE_COUNT; phase++) {
+                this.phaseTimes[phase][this.current] = 0;
+            }
+        }
+
+        this.frameStart = now;
+        this.phaseStart = now;
+    }
+
+    public void beginPhase() {
+        this.phaseStart = System.nanoTime();
+    }
+
+    public void endPhase(int phase) {
+        var now = System.nanoTime();
+        this.phaseTimes[phase][this.current] += now - this.phaseStart;
+        this.phaseStart = now;
+    }
+
+    public int getFinishedFrames() {
+        return this.finished;
+    }
+
+    // age 0 is the last finished frame
+    public long getFrameTime(int age) {
+        return this.frameTimes[this.slot(age)];
+    }
+
+    public long getPhaseTime(int phase, int age) {
+        return this.phaseTimes[phase][this.slot(age)];
+    }
+
+    private int slot(int age) {
+        return (this.current - 1 - age + FRAME_COUNT) % FRAME_COUNT;
+    }
+}
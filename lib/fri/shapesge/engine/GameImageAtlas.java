@@ -0,0 +1,267 @@
+package fri.shapesge.engine;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Packs many small images into a few large pages with a skyline packer,
+ * so drawing them keeps a single source image hot.
+ */
+public class GameImageAtlas {
+    private static final int PAGE_SIZE = 2048;
+    // empty border between packed images, keeps filtered drawing from bleeding into neighbours
+    private static final int PADDING = 1;
+
+    public static class Region {
+        private final BufferedImage page;
+        private final BufferedImage image;
+        private final int x;
+        private final int y;
+
+        private Region(BufferedImage page, int x, int y, int width, int height) {
+            this.page = page;
+            this.image = page.getSubimage(x, y, width, height);
+            this.x = x;
+            this.y = y;
+        }
+
+        public BufferedImage getPage() {
+            return this.page;
+        }
+
+        // view of the packed image sharing pixels with the page
+        public BufferedImage getImage() {
+            return this.image;
+        }
+
+        public int getX() {
+            return this.x;
+        }
+
+        public int getY() {
+            return this.y;
+        }
+    }
+
+    private final HashMap<String, Region> regions;
+    private final int pageCount;
+
+    public GameImageAtlas(GameParser parser, List<String> imagePaths) {
+        var paths = imagePaths.stream().distinct().toArray(String[]::new);
+        var images = new BufferedImage[paths.length];
+        for (var i = 0; i < paths.length; i++) {
+            images[i] = parser.parseImage(paths[i]);
+        }
+
+        // tall images first, the skyline stays flatter that way
+        var order = new Integer[paths.length];
+        for (var i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            var byHeight = Integer.compare(images[b].getHeight(), images[a].getHeight());
+            return byHeight != 0 ? byHeight : Integer.compare(images[b].getWidth(), images[a].getWidth());
+        });
+
+        var pageOfImage = new int[paths.length];
+        var xOfImage = new int[paths.length];
+        var yOfImage = new int[paths.length];
+        var skylines = new ArrayList<Skyline>();
+
+        for (int i : order) {
+            var width = images[i].getWidth() + PADDING;
+            var height = images[i].getHeight() + PADDING;
+
+            var placed = false;
+            for (var page = 0; page < skylines.size() && !placed; page++) {
+                placed = skylines.get(page).place(width, height, i, xOfImage, yOfImage);
+                pageOfImage[i] = page;
+            }
+
+            if (!placed) {
+                // images larger than a page get a page of their own
+                var skyline = new Skyline(Math.max(PAGE_SIZE, width), Math.max(PAGE_SIZE, height));
+                skyline.place(width, height, i, xOfImage, yOfImage);
+                pageOfImage[i] = skylines.size();
+                skylines.add(skyline);
+            }
+        }
+
+        var pages = new BufferedImage[skylines.size()];
+        for (var page = 0; page < pages.length; page++) {
+            var skyline = skylines.get(page);
+            pages[page] = GameParser.createCompatibleImage(Math.max(skyline.usedWidth, 1), Math.max(skyline.usedHeight, 1), Transparency.TRANSLUCENT);
+        }
+
+        var canvases = new Graphics2D[pages.length];
+        try {
+            for (var page = 0; page < pages.length; page++) {
+                canvases[page] = pages[page].createGraphics();
+            }
+            for (var i = 0; i < paths.length; i++) {
+                canvases[pageOfImage[i]].drawImage(images[i], xOfImage[i], yOfImage[i], null);
+            }
+        } finally {
+            for (var canvas : canvases) {
+                if (canvas != null) {
+                    canvas.dispose();
+                }
+            }
+        }
+
+        this.regions = new HashMap<>();
+        for (var i = 0; i < paths.length; i++) {
+            this.regions.put(paths[i], new Region(
+                    pages[pageOfImage[i]],
+                    xOfImage[i],
+                    yOfImage[i],
+                    images[i].getWidth(),
+                    images[i].getHeight()
+            ));
+        }
+        this.pageCount = pages.length;
+    }
+
+    public Region getRegion(String imagePath) {
+        return this.regions.get(imagePath);
+    }
+
+    public int getPageCount() {
+        return this.pageCount;
+    }
+
+    /**
+     * Bottom-left skyline: the top edge of the packed area is kept as a list of horizontal segments
+     * and every image goes where it ends lowest.
+     */
+    private static class Skyline {
+        private final int width;
+        private final int height;
+        private int[] segmentX;
+        private int[] segmentY;
+        private int[] segmentWidth;
+        private int segmentCount;
+        private int usedWidth;
+        private int usedHeight;
+
+        Skyline(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.segmentX = new int[16];
+            this.segmentY = new int[16];
+            this.segmentWidth = new int[16];
+            this.segmentWidth[0] = width;
+            this.segmentCount = 1;
+        }
+
+        boolean place(int width, int height, int image, int[] xOfImage, int[] yOfImage) {
+            var bestSegment = -1;
+            var bestY = Integer.MAX_VALUE;
+            var bestWidth = Integer.MAX_VALUE;
+
+            for (var i = 0; i < this.segmentCount; i++) {
+                var y = this.fit(i, width, height);
+                if (y < 0) {
+                    continue;
+                }
+
+                if (y + height < bestY || (y + height == bestY && this.segmentWidth[i] < bestWidth)) {
+                    bestSegment = i;
+                    bestY = y + height;
+                    bestWidth = this.segmentWidth[i];
+                }
+            }
+
+            if (bestSegment < 0) {
+                return false;
+            }
+
+            var x = this.segmentX[bestSegment];
+            var y = bestY - height;
+            xOfImage[image] = x;
+            yOfImage[image] = y;
+            this.usedWidth = Math.max(this.usedWidth, x + width);
+            this.usedHeight = Math.max(this.usedHeight, y + height);
+
+            this.raise(bestSegment, x, y + height, width);
+            return true;
+        }
+
+        // returns the y the image would be placed at when its left edge starts at the segment, -1 if it does not fit
+        private int fit(int segment, int width, int height) {
+            var x = this.segmentX[segment];
+            if (x + width > this.width) {
+                return -1;
+            }
+
+            var y = 0;
+            var remaining = width;
+            for (var i = segment; remaining > 0; i++) {
+                y = Math.max(y, this.segmentY[i]);
+                if (y + height > this.height) {
+                    return -1;
+                }
+                remaining -= this.segmentWidth[i];
+            }
+            return y;
+        }
+
+        private void raise(int segment, int x, int y, int width) {
+            this.insert(segment, x, y, width);
+
+            // shrink or drop the segments now covered by the new one
+            var end = x + width;
+            var i = segment + 1;
+            while (i < this.segmentCount && this.segmentX[i] < end) {
+                var shrink = end - this.segmentX[i];
+                if (shrink >= this.segmentWidth[i]) {
+                    this.delete(i);
+                } else {
+                    this.segmentX[i] += shrink;
+                    this.segmentWidth[i] -= shrink;
+                    break;
+                }
+            }
+
+            // merge neighbours of the same height
+            for (i = 0; i < this.segmentCount - 1; ) {
+                if (this.segmentY[i] == this.segmentY[i + 1]) {
+                    this.segmentWidth[i] += this.segmentWidth[i + 1];
+                    this.delete(i + 1);
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        private void insert(int index, int x, int y, int width) {
+            if (this.segmentCount == this.segmentX.length) {
+                this.segmentX = Arrays.copyOf(this.segmentX, this.segmentCount * 2);
+                this.segmentY = Arrays.copyOf(this.segmentY, this.segmentCount * 2);
+                this.segmentWidth = Arrays.copyOf(this.segmentWidth, this.segmentCount * 2);
+            }
+
+            var moved = this.segmentCount - index;
+            System.arraycopy(this.segmentX, index, this.segmentX, index + 1, moved);
+            System.arraycopy(this.segmentY, index, this.segmentY, index + 1, moved);
+            System.arraycopy(this.segmentWidth, index, this.segmentWidth, index + 1, moved);
+            this.segmentX[index] = x;
+            this.segmentY[index] = y;
+            this.segmentWidth[index] = width;
+            this.segmentCount++;
+        }
+
+        private void delete(int index) {
+            var moved = this.segmentCount - index - 1;
+            System.arraycopy(this.segmentX, index + 1, this.segmentX, index, moved);
+            System.arraycopy(this.segmentY, index + 1, this.segmentY, index, moved);
+            System.arraycopy(this.segmentWidth, index + 1, this.segmentWidth, index, moved);
+            this.segmentCount--;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package fri.shapesge.engine;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Performance overlay: frame time sparkline, p50/p99 frame times, mean phase times and input latency.
+ * Text is drawn from glyph images rendered once, numbers are formatted into a reused char buffer,
+ * so drawing the overlay neither allocates nor lays out text.
+ */
+class GameInfoOverlay {
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Color GRAPH = new Color(80, 220, 80);
+    private static final Color BUDGET = new Color(220, 80, 80);
+    private static final char FIRST_GLYPH = ' ';
+    private static final char LAST_GLYPH = '~';
+    // percentiles and means are recomputed every few frames, it keeps the numbers readable too
+    private static final int STATISTICS_INTERVAL = 30;
+    private static final int GRAPH_HEIGHT = 40;
+    private static final int PADDING = 4;
+    // budget the graph is scaled to when the frame rate is not capped
+    private static final int UNCAPPED_GRAPH_FPS = 60;
+
+    private final GameFrameStats stats;
+    private final GameFPSCounter fpsCounter;
+    private final GameObjects gameObjects;
+    private final GameInputProcessor inputProcessor;
+    private final GameFrameCapture frameCapture;
+    private final long frameBudget;
+
+    private BufferedImage[] glyphs;
+    private int glyphWidth;
+    private int glyphHeight;
+    // blitting a prepared translucent image is cheaper than filling with a translucent color
+    private BufferedImage background;
+
+    private final char[] line;
+    private int lineLength;
+    private final long[] sortedFrameTimes;
+    private final int[] graphX;
+    private final int[] graphY;
+    private int framesToStatistics;
+    private long frameTimeP50;
+    private long frameTimeP99;
+    private final long[] phaseMeans;
+
+    GameInfoOverlay(GameFrameStats stats, GameFPSCounter fpsCounter, GameObjects gameObjects, GameInputProcessor inputProcessor, GameFrameCapture frameCapture, int fps) {
+        this.stats = stats;
+        this.fpsCounter = fpsCounter;
+        this.gameObjects = gameObjects;
+        this.inputProcessor = inputProcessor;
+        this.frameCapture = frameCapture;
+        this.frameBudget = 1_000_000_000L / (fps > 0 ? fps : UNCAPPED_GRAPH_FPS);
+
+        this.line = new char[64];
+        this.sortedFrameTimes = new long[GameFrameStats.FRAME_COUNT];
+        this.graphX = new int[GameFrameStats.FRAME_COUNT];
+        this.graphY = new int[GameFrameStats.FRAME_COUNT];
+        this.phaseMeans = new long[GameFrameStats.PHASE_COUNT];
+        this.framesToStatistics = 0;
+    }
+
+    public void draw(Graphics2D canvas) {
+        if (this.glyphs == null) {
+            this.createImages(canvas);
+        }
+
+        if (this.framesToStatistics-- <= 0) {
+            this.computeStatistics();
+            this.framesToStatistics = STATISTICS_INTERVAL;
+        }
+
+        var graphWidth = GameFrameStats.FRAME_COUNT;
+        canvas.drawImage(this.background, 0, 0, null);
+
+        var y = PADDING;
+        this.clearLine();
+        this.append("FPS ");
+        this.append(this.fpsCounter.getFPS());
+        this.append("  Objects ");
+        this.append(this.gameObjects.getCount());
+        this.append("  Input ");
+        this.appendMillis(this.inputProcessor.getInputLatency());
+        this.drawLine(canvas, PADDING, y);
+
+        y += this.glyphHeight;
+        this.clearLine();
+        this.append("Frame p50 ");
+        this.appendMillis(this.frameTimeP50);
+        this.append("  p99 ");
+        this.appendMillis(this.frameTimeP99);
+        this.append(" ms");
+        this.drawLine(canvas, PADDING, y);
+
+        y += this.glyphHeight;
+        this.clearLine();
+        this.append("Tmr ");
+        this.appendMillis(this.phaseMeans[GameFrameStats.TIMERS]);
+        this.append(" Evt ");
+        this.appendMillis(this.phaseMeans[GameFrameStats.DISPATCH]);
+        this.append(" Drw ");
+        this.appendMillis(this.phaseMeans[GameFrameStats.DRAW]);
+        this.append(" Prs ");
+        this.appendMillis(this.phaseMeans[GameFrameStats.PRESENT]);
+        this.drawLine(canvas, PADDING, y);
+
+        if (this.frameCapture != null) {
+            y += this.glyphHeight;
+            this.clearLine();
+            this.append("Captured ");
+            this.append(this.frameCapture.getWrittenFrames());
+            this.append("  Dropped ");
+            this.append(this.frameCapture.getDroppedFrames());
+            if (this.frameCapture.hasFailed()) {
+                this.append("  Failed");
+            }
+            this.drawLine(canvas, PADDING, y);
+        }
+
+        y += this.glyphHeight + PADDING;
+        this.drawGraph(canvas, PADDING, y, graphWidth);
+    }
+
+    // frame times from oldest on the left, the full height is twice the frame budget
+    private void drawGraph(Graphics2D canvas, int x, int y, int graphWidth) {
+        var bottom = y + GRAPH_HEIGHT;
+        var budgetY = bottom - GRAPH_HEIGHT / 2;
+        canvas.setColor(BUDGET);
+        canvas.drawLine(x, budgetY, x + graphWidth - 1, budgetY);
+
+        var frames = this.stats.getFinishedFrames();
+        if (frames < 2) {
+            return;
+        }
+
+        for (var i = 0; i < frames; i++) {
+            var frameTime = this.stats.getFrameTime(frames - 1 - i);
+            var barHeight = (int)Math.min(GRAPH_HEIGHT, frameTime * GRAPH_HEIGHT / (2 * this.frameBudget));
+            this.graphX[i] = x + graphWidth - frames + i;
+            this.graphY[i] = bottom - barHeight;
+        }
+
+        canvas.setColor(GRAPH);
+        canvas.drawPolyline(this.graphX, this.graphY, frames);
+    }
+
+    private void computeStatistics() {
+        var frames = this.stats.getFinishedFrames();
+        if (frames == 0) {
+            return;
+        }
+
+        for (var i = 0; i < frames; i++) {
+            this.sortedFrameTimes[i] = this.stats.getFrameTime(i);
+        }
+        Arrays.sort(this.sortedFrameTimes, 0, frames);
+        this.frameTimeP50 = this.sortedFrameTimes[(frames - 1) / 2];
+        this.frameTimeP99 = this.sortedFrameTimes[(frames - 1) * 99 / 100];
+
+        for (var phase = 0; phase < GameFrameStats.PHASE_COUNT; phase++) {
+            var sum = 0L;
+            for (var i = 0; i < frames; i++) {
+                sum += this.stats.getPhaseTime(phase, i);
+            }
+            this.phaseMeans[phase] = sum / frames;
+        }
+    }
+
+    private void createImages(Graphics2D canvas) {
+        var font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        var metrics = canvas.getFontMetrics(font);
+        this.glyphWidth = metrics.charWidth('0');
+        this.glyphHeight = metrics.getAscent() + metrics.getDescent();
+
+        var configuration = canvas.getDeviceConfiguration();
+        this.glyphs = new BufferedImage[LAST_GLYPH - FIRST_GLYPH + 1];
+        for (var c = FIRST_GLYPH; c <= LAST_GLYPH; c++) {
+            var glyph = configuration.createCompatibleImage(this.glyphWidth, this.glyphHeight, Transparency.TRANSLUCENT);
+            var glyphCanvas = glyph.createGraphics();
+            try {
+                glyphCanvas.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                glyphCanvas.setFont(font);
+                glyphCanvas.setColor(Color.white);
+                glyphCanvas.drawString(String.valueOf(c), 0, metrics.getAscent());
+            } finally {
+                glyphCanvas.dispose();
+            }
+            this.glyphs[c - FIRST_GLYPH] = glyph;
+        }
+
+        var lineCount = this.frameCapture == null ? 3 : 4;
+        var width = Math.max(GameFrameStats.FRAME_COUNT, 40 * this.glyphWidth) + 2 * PADDING;
+        var height = lineCount * this.glyphHeight + GRAPH_HEIGHT + 3 * PADDING;
+        this.background = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        var backgroundCanvas = this.background.createGraphics();
+        try {
+            backgroundCanvas.setComposite(AlphaComposite.Src);
+            backgroundCanvas.setColor(BACKGROUND);
+            backgroundCanvas.fillRect(0, 0, width, height);
+        } finally {
+            backgroundCanvas.dispose();
+        }
+    }
+
+    private void drawLine(Graphics2D canvas, int x, int y) {
+        for (var i = 0; i < this.lineLength; i++) {
+            var c = this.line[i];
+            if (c > FIRST_GLYPH && c <= LAST_GLYPH) {
+                canvas.drawImage(this.glyphs[c - FIRST_GLYPH], x, y, null);
+            }
+            x += this.glyphWidth;
+        }
+    }
+
+    private void clearLine() {
+        this.lineLength = 0;
+    }
+
+    private void append(String text) {
+        for (var i = 0; i < text.length() && this.lineLength < this.line.length; i++) {
+            this.line[this.lineLength++] = text.charAt(i);
+        }
+    }
+
+    private void append(long number) {
+        if (number < 0) {
+            this.append("-");
+            number = -number;
+        }
+
+        var start = this.lineLength;
+        do {
+            if (this.lineLength == this.line.length) {
+                return;
+            }
+            this.line[this.lineLength++] = (char)('0' + number % 10);
+            number /= 10;
+        } while (number > 0);
+
+        // digits were written from the lowest one
+        for (int i = start, j = this.lineLength - 1; i < j; i++, j--) {
+            var digit = this.line[i];
+            this.line[i] = this.line[j];
+            this.line[j] = digit;
+        }
+    }
+
+    // nanoseconds as milliseconds with two decimal places
+    private void appendMillis(long nanoseconds) {
+        var hundredths = (nanoseconds + 5_000) / 10_000;
+        this.append(hundredths / 100);
+        this.append(".");
+        if (hundredths % 100 < 10) {
+            this.append("0");
+        }
+        this.append(hundredths % 100);
+    }
+}
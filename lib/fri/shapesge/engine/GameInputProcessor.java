@@ -3,16 +3,37 @@ package fri.shapesge.engine;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 
 class GameInputProcessor {
-    private final ArrayList<GameKeyEvent> keyEvents;
-    private final ArrayList<GameMouseEvent> mouseEvents;
+    // pointer position before the mouse has moved over the canvas
+    private static final long NO_POINTER = Long.MIN_VALUE;
+
+    // bindings grouped by key code and by mouse event type, so an event only checks the bindings it can match
+    private final HashMap<Integer, ArrayList<GameKeyEvent>> keyEvents;
+    private final HashMap<Integer, ArrayList<GameMouseEvent>> mouseEvents;
     private final GameEventDispatcher eventDispatcher;
 
+    // written from the AWT thread, read from the game loop, both under the lock of the set
+    private final BitSet heldKeys;
+    private final BitSet heldButtons;
+    private final GameInputTimeline timeline;
+
+    // latest position written by the AWT thread, and the position the game loop sampled for the current frame,
+    // x in the upper half, y in the lower half, so both are always read from the same motion sample
+    private volatile long pointer;
+    private volatile long sampledPointer;
+
     GameInputProcessor(GameEventDispatcher eventDispatcher, GameConfig gameConfig, GameParser gameParser) {
         this.eventDispatcher = eventDispatcher;
-        this.keyEvents = new ArrayList<>();
-        this.mouseEvents = new ArrayList<>();
+        this.keyEvents = new HashMap<>();
+        this.mouseEvents = new HashMap<>();
+        this.heldKeys = new BitSet();
+        this.heldButtons = new BitSet();
+        this.timeline = new GameInputTimeline();
+        this.pointer = NO_POINTER;
+        this.sampledPointer = NO_POINTER;
 
         for (var message : gameConfig.getOptions(GameConfig.KEYBOARD_SECTION)) {
             var messageName = message.getOption();
@@ -34,26 +55,132 @@ class GameInputProcessor {
     }
 
     public void registerKeyEvent(GameKeyEvent keyEvent) {
-        this.keyEvents.add(keyEvent);
+        this.keyEvents.computeIfAbsent(keyEvent.getKeyCode(), k -> new ArrayList<>()).add(keyEvent);
     }
 
     public void registerMouseEvent(GameMouseEvent mouseEvent) {
-        this.mouseEvents.add(mouseEvent);
+        this.mouseEvents.computeIfAbsent(mouseEvent.getEventType(), k -> new ArrayList<>()).add(mouseEvent);
     }
 
     public void processKeyEvent(KeyEvent awtEvent) {
-        for (GameKeyEvent event : this.keyEvents) {
+        // getWhen has only millisecond resolution, the transition is stamped when it arrives instead
+        switch (awtEvent.getID()) {
+            case KeyEvent.KEY_PRESSED:
+                this.timeline.record(GameInputTimeline.KEY, awtEvent.getKeyCode(), true, System.nanoTime());
+                synchronized (this.heldKeys) {
+                    this.heldKeys.set(awtEvent.getKeyCode());
+                }
+                break;
+            case KeyEvent.KEY_RELEASED:
+                this.timeline.record(GameInputTimeline.KEY, awtEvent.getKeyCode(), false, System.nanoTime());
+                synchronized (this.heldKeys) {
+                    this.heldKeys.clear(awtEvent.getKeyCode());
+                }
+                break;
+        }
+
+        var events = this.keyEvents.get(awtEvent.getKeyCode());
+        if (events == null) {
+            return;
+        }
+
+        for (GameKeyEvent event : events) {
             if (event.matches(awtEvent)) {
                 this.eventDispatcher.dispatchStandard(event.getMessage());
             }
         }
     }
 
+    public boolean hasMouseBindings(int eventType) {
+        return this.mouseEvents.containsKey(eventType);
+    }
+
+    public void updatePointer(int x, int y) {
+        this.pointer = ((long)x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public void samplePointer() {
+        this.sampledPointer = this.pointer;
+    }
+
+    public boolean hasPointer() {
+        return this.sampledPointer != NO_POINTER;
+    }
+
+    public int getPointerX() {
+        return (int)(this.sampledPointer >> 32);
+    }
+
+    public int getPointerY() {
+        return (int)this.sampledPointer;
+    }
+
     public void processMouseEvent(MouseEvent awtEvent) {
-        for (GameMouseEvent event : this.mouseEvents) {
+        switch (awtEvent.getID()) {
+            case MouseEvent.MOUSE_PRESSED:
+                this.timeline.record(GameInputTimeline.BUTTON, awtEvent.getButton(), true, System.nanoTime());
+                synchronized (this.heldButtons) {
+                    this.heldButtons.set(awtEvent.getButton());
+                }
+                break;
+            case MouseEvent.MOUSE_RELEASED:
+                this.timeline.record(GameInputTimeline.BUTTON, awtEvent.getButton(), false, System.nanoTime());
+                synchronized (this.heldButtons) {
+                    this.heldButtons.clear(awtEvent.getButton());
+                }
+                break;
+        }
+
+        var events = this.mouseEvents.get(awtEvent.getID());
+        if (events == null) {
+            return;
+        }
+
+        for (GameMouseEvent event : events) {
             if (event.matches(awtEvent)) {
                 this.eventDispatcher.dispatchMouse(event.getMessage(), awtEvent.getX(), awtEvent.getY());
             }
         }
     }
+
+    // releases are not delivered to a window without focus, so nothing can stay held after losing it
+    public void releaseAll() {
+        var now = System.nanoTime();
+        synchronized (this.heldKeys) {
+            for (var key = this.heldKeys.nextSetBit(0); key >= 0; key = this.heldKeys.nextSetBit(key + 1)) {
+                this.timeline.record(GameInputTimeline.KEY, key, false, now);
+            }
+            this.heldKeys.clear();
+        }
+        synchronized (this.heldButtons) {
+            for (var button = this.heldButtons.nextSetBit(0); button >= 0; button = this.heldButtons.nextSetBit(button + 1)) {
+                this.timeline.record(GameInputTimeline.BUTTON, button, false, now);
+            }
+            this.heldButtons.clear();
+        }
+    }
+
+    public boolean isKeyDown(int keyCode) {
+        synchronized (this.heldKeys) {
+            return this.heldKeys.get(keyCode);
+        }
+    }
+
+    public boolean isButtonDown(int button) {
+        synchronized (this.heldButtons) {
+            return this.heldButtons.get(button);
+        }
+    }
+
+    public long takeKeyHeldTime(int keyCode) {
+        return this.timeline.takeHeldTime(GameInputTimeline.KEY, keyCode);
+    }
+
+    public long takeButtonHeldTime(int button) {
+        return this.timeline.takeHeldTime(GameInputTimeline.BUTTON, button);
+    }
+
+    public long getInputLatency() {
+        return this.timeline.getLastLatency();
+    }
 }
@@ -0,0 +1,153 @@
+package fri.shapesge.engine;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Key and mouse button transitions with nanosecond timestamps in a preallocated ring.
+ * The AWT thread records transitions, the simulation takes how long a key was held since it asked last time.
+ */
+class GameInputTimeline {
+    public static final int KEY = 0;
+    public static final int BUTTON = 1;
+
+    // power of two, a few seconds of hammering the keyboard
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+
+    // ring written only by the AWT thread, the volatile counter publishes the slots written before it
+    private final long[] times;
+    private final int[] devices;
+    private final int[] codes;
+    private final boolean[] pressed;
+    private volatile long written;
+
+    // state of the consumer, guarded by this
+    private long read;
+    private int trackedCount;
+    private int[] trackedDevices;
+    private int[] trackedCodes;
+    private boolean[] trackedDown;
+    private long[] trackedDownSince;
+    private long[] trackedHeld;
+    private volatile long lastLatency;
+
+    GameInputTimeline() {
+        this.times = new long[CAPACITY];
+        this.devices = new int[CAPACITY];
+        this.codes = new int[CAPACITY];
+        this.pressed = new boolean[CAPACITY];
+        this.written = 0;
+
+        this.read = 0;
+        this.trackedCount = 0;
+        this.trackedDevices = new int[8];
+        this.trackedCodes = new int[8];
+        this.trackedDown = new boolean[8];
+        this.trackedDownSince = new long[8];
+        this.trackedHeld = new long[8];
+        this.lastLatency = 0;
+    }
+
+    // called from the AWT thread only
+    public void record(int device, int code, boolean isPressed, long time) {
+        var sequence = this.written;
+        var slot = (int)(sequence & MASK);
+        this.times[slot] = time;
+        this.devices[slot] = device;
+        this.codes[slot] = code;
+        this.pressed[slot] = isPressed;
+        this.written = sequence + 1;
+    }
+
+    // nanoseconds the key or button was held since the previous call for it
+    public synchronized long takeHeldTime(int device, int code) {
+        var now = System.nanoTime();
+        this.consume(now);
+
+        var index = this.track(device, code);
+        var held = this.trackedHeld[index];
+        this.trackedHeld[index] = 0;
+        if (this.trackedDown[index]) {
+            held += now - this.trackedDownSince[index];
+            this.trackedDownSince[index] = now;
+        }
+        return held;
+    }
+
+    // time between the last consumed transition and the moment the simulation saw it
+    public long getLastLatency() {
+        return this.lastLatency;
+    }
+
+    private void consume(long now) {
+        var available = this.written;
+        if (available - this.read >= CAPACITY) {
+            // the simulation did not ask for too long, the oldest transitions are gone
+            // and the oldest slot left is the one the writer fills next, maybe right now
+            this.read = available - CAPACITY + 1;
+        }
+
+        while (this.read < available) {
+            var slot = (int)(this.read & MASK);
+            var time = this.times[slot];
+            var device = this.devices[slot];
+            var code = this.codes[slot];
+            var isPressed = this.pressed[slot];
+
+            // the slot is read before checking whether the writer has lapped it
+            VarHandle.acquireFence();
+            // the writer fills the slot of sequence read + CAPACITY before publishing it,
+            // so from then on the slot may be half rewritten
+            var lapped = this.written;
+            if (lapped - this.read >= CAPACITY) {
+                this.read = lapped - CAPACITY + 1;
+                available = lapped;
+                continue;
+            }
+            if (time > now) {
+                // recorded after the simulation asked, it belongs to the next call
+                break;
+            }
+
+            this.apply(this.track(device, code), isPressed, time);
+            this.lastLatency = now - time;
+            this.read++;
+        }
+    }
+
+    private void apply(int index, boolean isPressed, long time) {
+        if (isPressed && !this.trackedDown[index]) {
+            this.trackedDown[index] = true;
+            this.trackedDownSince[index] = time;
+        } else if (!isPressed && this.trackedDown[index]) {
+            this.trackedHeld[index] += time - this.trackedDownSince[index];
+            this.trackedDown[index] = false;
+        }
+    }
+
+    // a game uses a handful of keys, a linear search beats hashing them
+    private int track(int device, int code) {
+        for (var i = 0; i < this.trackedCount; i++) {
+            if (this.trackedCodes[i] == code && this.trackedDevices[i] == device) {
+                return i;
+            }
+        }
+
+        if (this.trackedCount == this.trackedCodes.length) {
+            var newLength = this.trackedCount * 2;
+            this.trackedDevices = Arrays.copyOf(this.trackedDevices, newLength);
+            this.trackedCodes = Arrays.copyOf(this.trackedCodes, newLength);
+            this.trackedDown = Arrays.copyOf(this.trackedDown, newLength);
+            this.trackedDownSince = Arrays.copyOf(this.trackedDownSince, newLength);
+            this.trackedHeld = Arrays.copyOf(this.trackedHeld, newLength);
+        }
+
+        var index = this.trackedCount++;
+        this.trackedDevices[index] = device;
+        this.trackedCodes[index] = code;
+        this.trackedDown[index] = false;
+        this.trackedHeld[index] = 0;
+        return index;
+    }
+}
@@ -21,6 +21,10 @@ class GameKeyEvent {
         return this.message;
     }
 
+    public int getKeyCode() {
+        return this.keyCode;
+    }
+
     public boolean matches(KeyEvent keyEvent) {
         return this.eventType == keyEvent.getID()
                 && this.modifiers == (keyEvent.getModifiersEx() & MODIFIER_MASK)
@@ -3,15 +3,23 @@ package fri.shapesge.engine;
 class GameLoop implements Runnable {
     private final GameFPSCaps fpsCaps;
     private final GameFPSCounter fpsCounter;
+    private final GameFrameStats frameStats;
     private final GameWindow gameWindow;
+    private final GameObjects gameObjects;
+    private final GameChangeJournal changeJournal;
     private final GameTimerProcessor timerProcessor;
     private final GameEventDispatcher eventDispatcher;
+    private final GameInputProcessor inputProcessor;
 
-    GameLoop(GameWindow gameWindow, GameTimerProcessor timerProcessor, GameEventDispatcher eventDispatcher, GameFPSCounter fpsCounter, GameConfig gameConfig) {
+    GameLoop(GameWindow gameWindow, GameObjects gameObjects, GameChangeJournal changeJournal, GameTimerProcessor timerProcessor, GameEventDispatcher eventDispatcher, GameInputProcessor inputProcessor, GameFPSCounter fpsCounter, GameFrameStats frameStats, GameConfig gameConfig) {
         this.gameWindow = gameWindow;
+        this.gameObjects = gameObjects;
+        this.changeJournal = changeJournal;
         this.timerProcessor = timerProcessor;
         this.eventDispatcher = eventDispatcher;
+        this.inputProcessor = inputProcessor;
         this.fpsCounter = fpsCounter;
+        this.frameStats = frameStats;
 
         this.fpsCaps = new GameFPSCaps(gameConfig.getInt(GameConfig.WINDOW_SECTION, GameConfig.FPS));
     }
@@ -21,10 +29,22 @@ class GameLoop implements Runnable {
     public void run() {
         for (;;) {
             this.fpsCounter.countFrame();
+            this.frameStats.beginFrame();
+
+            // however many motion samples arrived, the frame sees one pointer position
+            this.inputProcessor.samplePointer();
 
             this.timerProcessor.processTimers();
+            this.frameStats.endPhase(GameFrameStats.TIMERS);
+
             this.eventDispatcher.doEvents();
 
+            // all changes of this frame are applied at once, before drawing
+            if (this.changeJournal.process(this.gameObjects)) {
+                this.gameWindow.showIfNeeded();
+            }
+            this.frameStats.endPhase(GameFrameStats.DISPATCH);
+
             try {
                 this.gameWindow.redraw();
             } catch (Exception e) {
@@ -17,6 +17,10 @@ class GameMouseEvent {
         return this.message;
     }
 
+    public int getEventType() {
+        return this.eventType;
+    }
+
     public boolean matches(MouseEvent mouseEvent) {
         if (this.eventType == MouseEvent.MOUSE_MOVED) {
             return mouseEvent.getID() == this.eventType;
@@ -4,29 +4,87 @@ import fri.shapesge.drawables.GameDrawable;
 
 import java.awt.Graphics2D;
 import java.util.ArrayList;
+import java.util.List;
 
 class GameObjects {
-    private final ArrayList<GameDrawable> drawables;
+    private final GameSpatialIndex index;
+
+    // owned by the render pass, rebuilt under the lock only when the epoch or the viewport changes
+    private final ArrayList<GameDrawable> snapshot;
+    private long epoch;
+    private long snapshotEpoch;
+    private int snapshotX;
+    private int snapshotY;
+    private int snapshotWidth;
+    private int snapshotHeight;
 
     GameObjects() {
-        this.drawables = new ArrayList<>();
+        this.index = new GameSpatialIndex();
+        this.snapshot = new ArrayList<>();
+        this.epoch = 0;
+        this.snapshotEpoch = -1;
     }
 
     public synchronized void registerDrawable(GameDrawable drawable) {
-        this.drawables.add(drawable);
+        this.index.insert(drawable);
+        this.epoch++;
     }
 
     public synchronized void unregisterDrawable(GameDrawable drawable) {
-        this.drawables.remove(drawable);
+        this.index.remove(drawable);
+        this.epoch++;
+    }
+
+    public synchronized void applyChanges(List<GameDrawable> changed) {
+        var boundsChanged = false;
+        for (var i = 0; i < changed.size(); i++) {
+            var drawable = changed.get(i);
+            if ((drawable.takePendingChanges() & GameDrawable.BOUNDS_CHANGED) != 0) {
+                // drawables not registered in the index are ignored by it
+                this.index.update(drawable);
+                boundsChanged = true;
+            }
+        }
+
+        if (boundsChanged) {
+            this.epoch++;
+        }
     }
 
-    public synchronized void drawAll(Graphics2D canvas) {
-        for (GameDrawable drawable : this.drawables) {
-            drawable.draw(canvas);
+    public void drawAll(Graphics2D canvas, int viewportX, int viewportY, int viewportWidth, int viewportHeight) {
+        this.takeSnapshot(viewportX, viewportY, viewportWidth, viewportHeight);
+
+        var drawables = this.snapshot;
+        for (var i = 0; i < drawables.size(); i++) {
+            drawables.get(i).draw(canvas);
         }
     }
 
+    private synchronized void takeSnapshot(int viewportX, int viewportY, int viewportWidth, int viewportHeight) {
+        var sameViewport = this.snapshotX == viewportX
+                && this.snapshotY == viewportY
+                && this.snapshotWidth == viewportWidth
+                && this.snapshotHeight == viewportHeight;
+
+        if (sameViewport && this.snapshotEpoch == this.epoch) {
+            return;
+        }
+
+        this.snapshot.clear();
+        this.index.query(viewportX, viewportY, viewportWidth, viewportHeight, this.snapshot);
+
+        this.snapshotEpoch = this.epoch;
+        this.snapshotX = viewportX;
+        this.snapshotY = viewportY;
+        this.snapshotWidth = viewportWidth;
+        this.snapshotHeight = viewportHeight;
+    }
+
+    public synchronized void findDrawables(int x, int y, int width, int height, List<GameDrawable> result) {
+        this.index.query(x, y, width, height, result);
+    }
+
     public synchronized int getCount() {
-        return this.drawables.size();
+        return this.index.size();
     }
 }
@@ -29,12 +29,17 @@ public class GameParser {
         RESOURCE
     }
 
-    private static final GraphicsConfiguration DEFAULT_GRAPHICS_CONFIGURATION = GraphicsEnvironment
-            .getLocalGraphicsEnvironment()
-            .getDefaultScreenDevice()
-            .getDefaultConfiguration();
-
-    private static final ColorModel DEFAULT_COLOR_MODEL = DEFAULT_GRAPHICS_CONFIGURATION.getColorModel();
+    // there is no screen to be compatible with when running headless
+    private static final GraphicsConfiguration DEFAULT_GRAPHICS_CONFIGURATION = GraphicsEnvironment.isHeadless()
+            ? null
+            : GraphicsEnvironment
+                    .getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice()
+                    .getDefaultConfiguration();
+
+    private static final ColorModel DEFAULT_COLOR_MODEL = DEFAULT_GRAPHICS_CONFIGURATION == null
+            ? ColorModel.getRGBdefault()
+            : DEFAULT_GRAPHICS_CONFIGURATION.getColorModel();
 
     private static final Map<String, Integer> KEY_MAP = Arrays.stream(KeyEvent.class
             .getDeclaredFields())
@@ -125,6 +130,79 @@ public class GameParser {
         }
     }
 
+    boolean parseSoftwareRenderer(String renderer) {
+        switch (renderer.strip().toLowerCase()) {
+            case GameConfig.RENDERER_JAVA2D:
+                return false;
+            case GameConfig.RENDERER_SOFTWARE:
+                return true;
+            default:
+                throw new RuntimeException("Invalid renderer");
+        }
+    }
+
+    boolean parseIntegerScaling(String scaling) {
+        switch (scaling.strip().toLowerCase()) {
+            case "fractional":
+                return false;
+            case "integer":
+                return true;
+            default:
+                throw new RuntimeException("Invalid fullscreen scaling");
+        }
+    }
+
+    boolean parseSmoothFilter(String filter) {
+        switch (filter.strip().toLowerCase()) {
+            case "nearest":
+                return false;
+            case "smooth":
+                return true;
+            default:
+                throw new RuntimeException("Invalid fullscreen filter");
+        }
+    }
+
+    GameFrameCapture.Format parseCaptureMode(String captureMode) {
+        switch (captureMode.strip().toLowerCase()) {
+            case "off":
+                return null;
+            case "png":
+                return GameFrameCapture.Format.PNG;
+            case "raw":
+                return GameFrameCapture.Format.RAW;
+            default:
+                throw new RuntimeException("Invalid capture mode");
+        }
+    }
+
+    boolean parseCaptureDropOldest(String dropPolicy) {
+        switch (dropPolicy.strip().toLowerCase()) {
+            case "newest":
+                return false;
+            case "oldest":
+                return true;
+            default:
+                throw new RuntimeException("Invalid capture drop policy");
+        }
+    }
+
+    int parseRotationCacheStep(String step) {
+        int angleStep;
+        try {
+            angleStep = Integer.parseInt(step.strip());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid rotation cache step");
+        }
+
+        // 0 turns the cache off, other steps have to split the full circle evenly
+        if (angleStep < 0 || angleStep > 360 || (angleStep > 0 && 360 % angleStep != 0)) {
+            throw new RuntimeException("Invalid rotation cache step");
+        }
+
+        return angleStep;
+    }
+
     public Color parseColor(String colorString) {
         if (colorString.startsWith("#")) {
             return Color.decode(colorString);
@@ -172,7 +250,7 @@ public class GameParser {
             return image;
         }
 
-        var compatibleImage = DEFAULT_GRAPHICS_CONFIGURATION.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        var compatibleImage = GameParser.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
 
         var g2d = compatibleImage.createGraphics();
         try {
@@ -184,6 +262,12 @@ public class GameParser {
         return compatibleImage;
     }
 
+    static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        return DEFAULT_GRAPHICS_CONFIGURATION == null
+                ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+                : DEFAULT_GRAPHICS_CONFIGURATION.createCompatibleImage(width, height, transparency);
+    }
+
     public AudioInputStream parseWaveAudio(String audioPath) {
         AudioInputStream loadedAudio = null;
 
@@ -234,6 +318,32 @@ public class GameParser {
         }
     }
 
+    public int parseKeyCode(String keyName) {
+        var keyCode = KEY_MAP.get(keyName.strip().toLowerCase());
+        if (keyCode == null) {
+            throw new RuntimeException(String.format("Cannot parse key %s", keyName));
+        }
+
+        return keyCode;
+    }
+
+    public int parseMouseButton(String buttonName) {
+        var button = MOUSE_BUTTON_MAP.get(buttonName.strip().toLowerCase());
+        if (button == null) {
+            throw new RuntimeException(String.format("Cannot parse mouse button %s", buttonName));
+        }
+
+        return button;
+    }
+
+    GameKeyEvent parseToggleKey(String toggleKey) {
+        if (toggleKey.strip().equalsIgnoreCase("none")) {
+            return null;
+        }
+
+        return this.parseKeyEvent(toggleKey, null);
+    }
+
     GameKeyEvent parseKeyEvent(String keyEvent, String message) {
         var eventTypeAndKey = keyEvent.strip().split("\\p{javaWhitespace}+", 2);
         if (eventTypeAndKey.length != 2) {
@@ -0,0 +1,421 @@
+package fri.shapesge.engine;
+
+import fri.shapesge.drawables.GameDrawable;
+import fri.shapesge.drawables.RasterCanvas;
+
+import java.awt.Color;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders drawables into an int ARGB framebuffer without Java2D. The frame is recorded into
+ * a display list first, then the framebuffer is split into tiles which are rasterized
+ * in parallel, every tile walking the display list in drawing order.
+ */
+class GameSoftwareRenderer {
+    private static final int TILE_SIZE = 64;
+
+    private static final int FILL_RECT = 0;
+    private static final int FILL_ELLIPSE = 1;
+    private static final int FILL_TRIANGLE = 2;
+    private static final int DRAW_IMAGE = 3;
+
+    private final GameObjects gameObjects;
+    private final int width;
+    private final int height;
+    private final int background;
+    private final int tilesX;
+    private final int tilesY;
+    private final int[] framebuffer;
+    private final BufferedImage image;
+    private final ForkJoinPool pool;
+    private final DisplayList displayList;
+    private final ArrayList<GameDrawable> drawables;
+
+    GameSoftwareRenderer(GameObjects gameObjects, int width, int height, Color background) {
+        this.gameObjects = gameObjects;
+        this.width = width;
+        this.height = height;
+        this.background = background.getRGB() | 0xFF000000;
+        this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.framebuffer = ((DataBufferInt)this.image.getRaster().getDataBuffer()).getData();
+        this.pool = ForkJoinPool.commonPool();
+        this.displayList = new DisplayList();
+        this.drawables = new ArrayList<>();
+    }
+
+    /**
+     * Renders the current frame. The returned image is owned by the renderer and is overwritten by the next call.
+     */
+    public synchronized BufferedImage render() {
+        this.drawables.clear();
+        this.gameObjects.findDrawables(0, 0, this.width, this.height, this.drawables);
+
+        this.displayList.clear();
+        for (var i = 0; i < this.drawables.size(); i++) {
+            this.drawables.get(i).rasterize(this.displayList);
+        }
+        this.drawables.clear();
+
+        this.pool.invoke(new TileTask(0, this.tilesX * this.tilesY));
+
+        return this.image;
+    }
+
+    // pixels of the image returned by render()
+    public int[] getFramebuffer() {
+        return this.framebuffer;
+    }
+
+    private void rasterizeTile(int tile) {
+        var x0 = (tile % this.tilesX) * TILE_SIZE;
+        var y0 = (tile / this.tilesX) * TILE_SIZE;
+        var x1 = Math.min(x0 + TILE_SIZE, this.width);
+        var y1 = Math.min(y0 + TILE_SIZE, this.height);
+
+        for (var y = y0; y < y1; y++) {
+            Arrays.fill(this.framebuffer, y * this.width + x0, y * this.width + x1, this.background);
+        }
+
+        var list = this.displayList;
+        for (var command = 0; command < list.count; command++) {
+            var box = command * 4;
+            var minX = Math.max(list.boxes[box], x0);
+            var minY = Math.max(list.boxes[box + 1], y0);
+            var maxX = Math.min(list.boxes[box + 2], x1);
+            var maxY = Math.min(list.boxes[box + 3], y1);
+
+            if (minX >= maxX || minY >= maxY) {
+                continue;
+            }
+
+            switch (list.types[command]) {
+                case FILL_RECT:
+                    this.fillRect(list.colors[command], minX, minY, maxX, maxY);
+                    break;
+                case FILL_ELLIPSE:
+                    this.fillEllipse(list, command, minX, minY, maxX, maxY);
+                    break;
+                case FILL_TRIANGLE:
+                    this.fillTriangle(list, command, minX, minY, maxX, maxY);
+                    break;
+                case DRAW_IMAGE:
+                    this.drawImage(list, command, minX, minY, maxX, maxY);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void fillRect(int color, int minX, int minY, int maxX, int maxY) {
+        for (var y = minY; y < maxY; y++) {
+            this.fillSpan(y * this.width, minX, maxX, color);
+        }
+    }
+
+    private void fillEllipse(DisplayList list, int command, int minX, int minY, int maxX, int maxY) {
+        var parameters = command * 6;
+        var radiusX = list.parameters[parameters + 2] / 2.0;
+        var radiusY = list.parameters[parameters + 3] / 2.0;
+        var centerX = list.parameters[parameters] + radiusX;
+        var centerY = list.parameters[parameters + 1] + radiusY;
+        var color = list.colors[command];
+
+        for (var y = minY; y < maxY; y++) {
+            var dy = (y + 0.5 - centerY) / radiusY;
+            if (dy * dy > 1) {
+                continue;
+            }
+
+            var halfSpan = radiusX * Math.sqrt(1 - dy * dy);
+            var spanStart = Math.max(minX, (int)Math.ceil(centerX - halfSpan - 0.5));
+            var spanEnd = Math.min(maxX, (int)Math.floor(centerX + halfSpan - 0.5) + 1);
+            this.fillSpan(y * this.width, spanStart, spanEnd, color);
+        }
+    }
+
+    private void fillTriangle(DisplayList list, int command, int minX, int minY, int maxX, int maxY) {
+        var p = list.parameters;
+        var base = command * 6;
+        var color = list.colors[command];
+
+        for (var y = minY; y < maxY; y++) {
+            var centerY = y + 0.5;
+            var left = Double.POSITIVE_INFINITY;
+            var right = Double.NEGATIVE_INFINITY;
+
+            for (var edge = 0; edge < 3; edge++) {
+                var ax = p[base + edge * 2];
+                var ay = p[base + edge * 2 + 1];
+                var bx = p[base + ((edge + 1) % 3) * 2];
+                var by = p[base + ((edge + 1) % 3) * 2 + 1];
+
+                if ((ay <= centerY && centerY < by) || (by <= centerY && centerY < ay)) {
+                    var crossing = ax + (centerY - ay) * (bx - ax) / (by - ay);
+                    left = Math.min(left, crossing);
+                    right = Math.max(right, crossing);
+                }
+            }
+
+            if (left > right) {
+                continue;
+            }
+
+            var spanStart = Math.max(minX, (int)Math.ceil(left - 0.5));
+            var spanEnd = Math.min(maxX, (int)Math.floor(right - 0.5) + 1);
+            this.fillSpan(y * this.width, spanStart, spanEnd, color);
+        }
+    }
+
+    private void drawImage(DisplayList list, int command, int minX, int minY, int maxX, int maxY) {
+        var pixels = list.images[command];
+        var base = command * 6;
+        var imageWidth = list.parameters[base];
+        var imageHeight = list.parameters[base + 1];
+        var inverse = list.inverseTransforms;
+        var t = command * 6;
+
+        // inverse transform rows: sourceX = m00 * x + m01 * y + m02, sourceY = m10 * x + m11 * y + m12
+        var m00 = inverse[t];
+        var m10 = inverse[t + 1];
+        var m01 = inverse[t + 2];
+        var m11 = inverse[t + 3];
+        var m02 = inverse[t + 4];
+        var m12 = inverse[t + 5];
+
+        for (var y = minY; y < maxY; y++) {
+            var row = y * this.width;
+            var sourceX = m00 * (minX + 0.5) + m01 * (y + 0.5) + m02;
+            var sourceY = m10 * (minX + 0.5) + m11 * (y + 0.5) + m12;
+
+            for (var x = minX; x < maxX; x++, sourceX += m00, sourceY += m10) {
+                var ix = (int)Math.floor(sourceX);
+                var iy = (int)Math.floor(sourceY);
+                if (ix < 0 || iy < 0 || ix >= imageWidth || iy >= imageHeight) {
+                    continue;
+                }
+
+                this.framebuffer[row + x] = blend(this.framebuffer[row + x], pixels[iy * imageWidth + ix]);
+            }
+        }
+    }
+
+    private void fillSpan(int row, int start, int end, int color) {
+        if (start >= end) {
+            return;
+        }
+
+        if (color >>> 24 == 0xFF) {
+            Arrays.fill(this.framebuffer, row + start, row + end, color);
+            return;
+        }
+
+        for (var x = start; x < end; x++) {
+            this.framebuffer[row + x] = blend(this.framebuffer[row + x], color);
+        }
+    }
+
+    private static int blend(int destination, int source) {
+        var alpha = source >>> 24;
+        if (alpha == 0xFF) {
+            return source;
+        }
+        if (alpha == 0) {
+            return destination;
+        }
+
+        var inverseAlpha = 0xFF - alpha;
+        var red = (((source >> 16) & 0xFF) * alpha + ((destination >> 16) & 0xFF) * inverseAlpha) / 0xFF;
+        var green = (((source >> 8) & 0xFF) * alpha + ((destination >> 8) & 0xFF) * inverseAlpha) / 0xFF;
+        var blue = ((source & 0xFF) * alpha + (destination & 0xFF) * inverseAlpha) / 0xFF;
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+
+    private class TileTask extends RecursiveAction {
+        // never serialized, RecursiveAction just happens to be serializable
+        private static final long serialVersionUID = 1L;
+
+        private final int fromTile;
+        private final int toTile;
+
+        TileTask(int fromTile, int toTile) {
+            this.fromTile = fromTile;
+            this.toTile = toTile;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.toTile - this.fromTile <= 1) {
+                for (var tile = this.fromTile; tile < this.toTile; tile++) {
+                    GameSoftwareRenderer.this.rasterizeTile(tile);
+                }
+                return;
+            }
+
+            var middle = (this.fromTile + this.toTile) >>> 1;
+            invokeAll(new TileTask(this.fromTile, middle), new TileTask(middle, this.toTile));
+        }
+    }
+
+    private static class DisplayList implements RasterCanvas {
+        // pixels of the images drawn this frame, read again every frame so a changed image is never stale
+        private final IdentityHashMap<BufferedImage, int[]> imagePixels;
+        private int count;
+        private int[] types;
+        private int[] colors;
+        private int[] boxes;
+        private int[] parameters;
+        private double[] inverseTransforms;
+        private int[][] images;
+
+        DisplayList() {
+            this.imagePixels = new IdentityHashMap<>();
+            this.count = 0;
+            this.types = new int[64];
+            this.colors = new int[64];
+            this.boxes = new int[64 * 4];
+            this.parameters = new int[64 * 6];
+            this.inverseTransforms = new double[64 * 6];
+            this.images = new int[64][];
+        }
+
+        void clear() {
+            Arrays.fill(this.images, 0, this.count, null);
+            this.imagePixels.clear();
+            this.count = 0;
+        }
+
+        @Override
+        public void fillRect(int x, int y, int width, int height, int argb) {
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+
+            var command = this.add(FILL_RECT, argb, x, y, x + width, y + height);
+            this.setParameters(command, x, y, width, height, 0, 0);
+        }
+
+        @Override
+        public void fillEllipse(int x, int y, int width, int height, int argb) {
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+
+            var command = this.add(FILL_ELLIPSE, argb, x, y, x + width, y + height);
+            this.setParameters(command, x, y, width, height, 0, 0);
+        }
+
+        @Override
+        public void fillTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int argb) {
+            var minX = Math.min(x1, Math.min(x2, x3));
+            var minY = Math.min(y1, Math.min(y2, y3));
+            var maxX = Math.max(x1, Math.max(x2, x3));
+            var maxY = Math.max(y1, Math.max(y2, y3));
+
+            if (minX == maxX || minY == maxY) {
+                return;
+            }
+
+            var command = this.add(FILL_TRIANGLE, argb, minX, minY, maxX + 1, maxY + 1);
+            this.setParameters(command, x1, y1, x2, y2, x3, y3);
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, AffineTransform transform) {
+            AffineTransform inverse;
+            try {
+                inverse = transform.createInverse();
+            } catch (NoninvertibleTransformException e) {
+                return;
+            }
+
+            var imageWidth = image.getWidth();
+            var imageHeight = image.getHeight();
+            var corners = new double[] {0, 0, imageWidth, 0, 0, imageHeight, imageWidth, imageHeight};
+            transform.transform(corners, 0, corners, 0, 4);
+
+            var minX = Math.min(Math.min(corners[0], corners[2]), Math.min(corners[4], corners[6]));
+            var minY = Math.min(Math.min(corners[1], corners[3]), Math.min(corners[5], corners[7]));
+            var maxX = Math.max(Math.max(corners[0], corners[2]), Math.max(corners[4], corners[6]));
+            var maxY = Math.max(Math.max(corners[1], corners[3]), Math.max(corners[5], corners[7]));
+
+            var command = this.add(
+                    DRAW_IMAGE,
+                    0,
+                    (int)Math.floor(minX),
+                    (int)Math.floor(minY),
+                    (int)Math.ceil(maxX),
+                    (int)Math.ceil(maxY)
+            );
+            this.setParameters(command, imageWidth, imageHeight, 0, 0, 0, 0);
+            this.images[command] = this.imagePixels.computeIfAbsent(image, DisplayList::readPixels);
+
+            var t = command * 6;
+            this.inverseTransforms[t] = inverse.getScaleX();
+            this.inverseTransforms[t + 1] = inverse.getShearY();
+            this.inverseTransforms[t + 2] = inverse.getShearX();
+            this.inverseTransforms[t + 3] = inverse.getScaleY();
+            this.inverseTransforms[t + 4] = inverse.getTranslateX();
+            this.inverseTransforms[t + 5] = inverse.getTranslateY();
+        }
+
+        // an ARGB image whose raster is exactly its pixels is read in place, without a copy
+        private static int[] readPixels(BufferedImage image) {
+            var width = image.getWidth();
+            var height = image.getHeight();
+            var raster = image.getRaster();
+            if (image.getType() == BufferedImage.TYPE_INT_ARGB && raster.getParent() == null
+                    && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+                    && ((SinglePixelPackedSampleModel)raster.getSampleModel()).getScanlineStride() == width) {
+                var buffer = (DataBufferInt)raster.getDataBuffer();
+                if (buffer.getNumBanks() == 1 && buffer.getOffset() == 0 && buffer.getSize() == width * height) {
+                    return buffer.getData();
+                }
+            }
+            return image.getRGB(0, 0, width, height, null, 0, width);
+        }
+
+        private int add(int type, int color, int minX, int minY, int maxX, int maxY) {
+            if (this.count == this.types.length) {
+                var capacity = this.count * 2;
+                this.types = Arrays.copyOf(this.types, capacity);
+                this.colors = Arrays.copyOf(this.colors, capacity);
+                this.boxes = Arrays.copyOf(this.boxes, capacity * 4);
+                this.parameters = Arrays.copyOf(this.parameters, capacity * 6);
+                this.inverseTransforms = Arrays.copyOf(this.inverseTransforms, capacity * 6);
+                this.images = Arrays.copyOf(this.images, capacity);
+            }
+
+            var command = this.count++;
+            this.types[command] = type;
+            this.colors[command] = color;
+            this.boxes[command * 4] = minX;
+            this.boxes[command * 4 + 1] = minY;
+            this.boxes[command * 4 + 2] = maxX;
+            this.boxes[command * 4 + 3] = maxY;
+            return command;
+        }
+
+        private void setParameters(int command, int p0, int p1, int p2, int p3, int p4, int p5) {
+            var base = command * 6;
+            this.parameters[base] = p0;
+            this.parameters[base + 1] = p1;
+            this.parameters[base + 2] = p2;
+            this.parameters[base + 3] = p3;
+            this.parameters[base + 4] = p4;
+            this.parameters[base + 5] = p5;
+        }
+    }
+}
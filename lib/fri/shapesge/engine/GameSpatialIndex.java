@@ -0,0 +1,405 @@
+package fri.shapesge.engine;
+
+import fri.shapesge.drawables.GameDrawable;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Uniform hashed grid over drawable bounds. Drawables without bounds and drawables
+ * spanning too many cells are kept in a separate list which is tested on every query.
+ * All lists are slot-indexed and removal swaps the last element into the freed slot,
+ * drawing order is restored from registration order when a query is answered.
+ * An entry remembers its slot in every cell it covers, so unlinking it never scans a cell,
+ * and cells are found in an open-addressing table keyed by primitive longs.
+ */
+class GameSpatialIndex {
+    private static final int CELL_SHIFT = 6; // 64 px cells
+    private static final int MAX_CELLS_PER_ENTRY = 64;
+    private static final Comparator<Entry> BY_ORDER = Comparator.comparingLong(e -> e.order);
+
+    private final IdentityHashMap<GameDrawable, Entry> entries;
+    private final CellTable cells;
+    private Entry[] unindexed;
+    private int unindexedCount;
+    private final ArrayList<Entry> queryResult;
+    private final Rectangle scratchBounds;
+    private long nextOrder;
+    private int queryStamp;
+
+    GameSpatialIndex() {
+        this.entries = new IdentityHashMap<>();
+        this.cells = new CellTable();
+        this.unindexed = new Entry[16];
+        this.unindexedCount = 0;
+        this.queryResult = new ArrayList<>();
+        this.scratchBounds = new Rectangle();
+        this.nextOrder = 0;
+        this.queryStamp = 0;
+    }
+
+    public void insert(GameDrawable drawable) {
+        if (this.entries.containsKey(drawable)) {
+            return;
+        }
+
+        var entry = new Entry(drawable, this.nextOrder++);
+        this.entries.put(drawable, entry);
+        this.link(entry);
+    }
+
+    public void remove(GameDrawable drawable) {
+        var entry = this.entries.remove(drawable);
+        if (entry != null) {
+            this.unlink(entry);
+        }
+    }
+
+    public void update(GameDrawable drawable) {
+        var entry = this.entries.get(drawable);
+        if (entry == null) {
+            return;
+        }
+
+        var bounded = drawable.getBounds(this.scratchBounds);
+        if (bounded && entry.indexed && this.coversSameCells(entry, this.scratchBounds)) {
+            entry.setBounds(this.scratchBounds);
+            return;
+        }
+
+        this.unlink(entry);
+        this.link(entry);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Collects drawables whose bounds intersect the given rectangle, in registration order.
+     * Drawables without bounds are always reported.
+     */
+    public void query(int x, int y, int width, int height, List<GameDrawable> result) {
+        var stamp = ++this.queryStamp;
+        var matches = this.queryResult;
+        matches.clear();
+
+        for (var i = 0; i < this.unindexedCount; i++) {
+            var entry = this.unindexed[i];
+            entry.stamp = stamp;
+            if (!entry.bounded || entry.intersects(x, y, width, height)) {
+                matches.add(entry);
+            }
+        }
+
+        var minCellX = x >> CELL_SHIFT;
+        var minCellY = y >> CELL_SHIFT;
+        var maxCellX = (x + Math.max(width, 1) - 1) >> CELL_SHIFT;
+        var maxCellY = (y + Math.max(height, 1) - 1) >> CELL_SHIFT;
+        var queriedCells = (long)(maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+
+        if (queriedCells > this.cells.size()) {
+            // the query covers more cells than are occupied, walking the occupied ones is cheaper
+            for (var i = 0; i < this.cells.capacity(); i++) {
+                var cell = this.cells.cellAt(i);
+                if (cell != null) {
+                    this.collect(cell, stamp, x, y, width, height);
+                }
+            }
+        } else {
+            for (var cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (var cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    var cell = this.cells.get(cellKey(cellX, cellY));
+                    if (cell != null) {
+                        this.collect(cell, stamp, x, y, width, height);
+                    }
+                }
+            }
+        }
+
+        matches.sort(BY_ORDER);
+        for (Entry entry : matches) {
+            result.add(entry.drawable);
+        }
+        matches.clear();
+    }
+
+    private void collect(Cell cell, int stamp, int x, int y, int width, int height) {
+        for (var i = 0; i < cell.count; i++) {
+            var entry = cell.entries[i];
+            if (entry.stamp == stamp) {
+                continue;
+            }
+            entry.stamp = stamp;
+            if (entry.intersects(x, y, width, height)) {
+                this.queryResult.add(entry);
+            }
+        }
+    }
+
+    private void link(Entry entry) {
+        entry.bounded = entry.drawable.getBounds(this.scratchBounds);
+        if (!entry.bounded) {
+            this.addUnindexed(entry);
+            return;
+        }
+
+        entry.setBounds(this.scratchBounds);
+        entry.minCellX = entry.x >> CELL_SHIFT;
+        entry.minCellY = entry.y >> CELL_SHIFT;
+        entry.maxCellX = (entry.x + entry.width - 1) >> CELL_SHIFT;
+        entry.maxCellY = (entry.y + entry.height - 1) >> CELL_SHIFT;
+
+        var coveredCells = (long)(entry.maxCellX - entry.minCellX + 1) * (entry.maxCellY - entry.minCellY + 1);
+        if (coveredCells > MAX_CELLS_PER_ENTRY) {
+            this.addUnindexed(entry);
+            return;
+        }
+
+        entry.indexed = true;
+        if (entry.cellSlots == null || entry.cellSlots.length < coveredCells) {
+            entry.cellSlots = new int[(int)coveredCells];
+        }
+        var position = 0;
+        for (var cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+            for (var cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+                var key = cellKey(cellX, cellY);
+                var cell = this.cells.get(key);
+                if (cell == null) {
+                    cell = new Cell();
+                    this.cells.put(key, cell);
+                }
+                cell.add(entry, position++);
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (!entry.indexed) {
+            this.removeUnindexed(entry);
+            return;
+        }
+
+        var position = 0;
+        for (var cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+            for (var cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+                var key = cellKey(cellX, cellY);
+                var cell = this.cells.get(key);
+                cell.removeAt(entry.cellSlots[position++]);
+                if (cell.isEmpty()) {
+                    this.cells.remove(key);
+                }
+            }
+        }
+        entry.indexed = false;
+    }
+
+    private void addUnindexed(Entry entry) {
+        if (this.unindexedCount == this.unindexed.length) {
+            this.unindexed = Arrays.copyOf(this.unindexed, this.unindexed.length * 2);
+        }
+
+        entry.indexed = false;
+        entry.slot = this.unindexedCount;
+        this.unindexed[this.unindexedCount++] = entry;
+    }
+
+    private void removeUnindexed(Entry entry) {
+        var last = this.unindexed[--this.unindexedCount];
+        this.unindexed[entry.slot] = last;
+        last.slot = entry.slot;
+        this.unindexed[this.unindexedCount] = null;
+        entry.slot = -1;
+    }
+
+    private boolean coversSameCells(Entry entry, Rectangle bounds) {
+        var width = Math.max(bounds.width, 1);
+        var height = Math.max(bounds.height, 1);
+        return entry.minCellX == bounds.x >> CELL_SHIFT
+                && entry.minCellY == bounds.y >> CELL_SHIFT
+                && entry.maxCellX == (bounds.x + width - 1) >> CELL_SHIFT
+                && entry.maxCellY == (bounds.y + height - 1) >> CELL_SHIFT;
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long)cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static class Entry {
+        private final GameDrawable drawable;
+        private final long order;
+        private boolean bounded;
+        private boolean indexed;
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+        private int stamp;
+        private int slot;
+        // slot of the entry in each covered cell, cells in row-major order
+        private int[] cellSlots;
+
+        Entry(GameDrawable drawable, long order) {
+            this.drawable = drawable;
+            this.order = order;
+            this.slot = -1;
+        }
+
+        void setBounds(Rectangle bounds) {
+            this.x = bounds.x;
+            this.y = bounds.y;
+            this.width = Math.max(bounds.width, 1);
+            this.height = Math.max(bounds.height, 1);
+        }
+
+        boolean intersects(int x, int y, int width, int height) {
+            return this.x < x + Math.max(width, 1)
+                    && x < this.x + this.width
+                    && this.y < y + Math.max(height, 1)
+                    && y < this.y + this.height;
+        }
+    }
+
+    private static class Cell {
+        private Entry[] entries;
+        // which of its covered cells this is for each entry, to find its slot in entry.cellSlots
+        private int[] positions;
+        private int count;
+
+        Cell() {
+            this.entries = new Entry[4];
+            this.positions = new int[4];
+            this.count = 0;
+        }
+
+        void add(Entry entry, int position) {
+            if (this.count == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+                this.positions = Arrays.copyOf(this.positions, this.positions.length * 2);
+            }
+            this.entries[this.count] = entry;
+            this.positions[this.count] = position;
+            entry.cellSlots[position] = this.count;
+            this.count++;
+        }
+
+        void removeAt(int slot) {
+            var last = --this.count;
+            if (slot != last) {
+                var moved = this.entries[last];
+                this.entries[slot] = moved;
+                this.positions[slot] = this.positions[last];
+                moved.cellSlots[this.positions[slot]] = slot;
+            }
+            this.entries[last] = null;
+        }
+
+        boolean isEmpty() {
+            return this.count == 0;
+        }
+    }
+
+    // open addressing with linear probing, no boxing of the keys
+    private static class CellTable {
+        private long[] keys;
+        private Cell[] cells;
+        private int size;
+
+        CellTable() {
+            this.keys = new long[64];
+            this.cells = new Cell[64];
+            this.size = 0;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        int capacity() {
+            return this.cells.length;
+        }
+
+        // the cell in a slot of the table, null for a free slot
+        Cell cellAt(int slot) {
+            return this.cells[slot];
+        }
+
+        Cell get(long key) {
+            var mask = this.cells.length - 1;
+            for (var slot = hash(key) & mask; this.cells[slot] != null; slot = (slot + 1) & mask) {
+                if (this.keys[slot] == key) {
+                    return this.cells[slot];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, Cell cell) {
+            if ((this.size + 1) * 2 > this.cells.length) {
+                this.grow();
+            }
+            var mask = this.cells.length - 1;
+            var slot = hash(key) & mask;
+            while (this.cells[slot] != null && this.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (this.cells[slot] == null) {
+                this.size++;
+            }
+            this.keys[slot] = key;
+            this.cells[slot] = cell;
+        }
+
+        void remove(long key) {
+            var mask = this.cells.length - 1;
+            var slot = hash(key) & mask;
+            while (this.cells[slot] != null && this.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (this.cells[slot] == null) {
+                return;
+            }
+            this.cells[slot] = null;
+            this.size--;
+
+            // shift later cells of the probe run back, so no lookup stops at the hole
+            var hole = slot;
+            for (var next = (hole + 1) & mask; this.cells[next] != null; next = (next + 1) & mask) {
+                var home = hash(this.keys[next]) & mask;
+                var reachable = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+                if (reachable) {
+                    this.keys[hole] = this.keys[next];
+                    this.cells[hole] = this.cells[next];
+                    this.cells[next] = null;
+                    hole = next;
+                }
+            }
+        }
+
+        private void grow() {
+            var oldKeys = this.keys;
+            var oldCells = this.cells;
+            this.keys = new long[oldKeys.length * 2];
+            this.cells = new Cell[oldCells.length * 2];
+            this.size = 0;
+            for (var i = 0; i < oldCells.length; i++) {
+                if (oldCells[i] != null) {
+                    this.put(oldKeys[i], oldCells[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            var mixed = key * 0x9E3779B97F4A7C15L;
+            return (int)(mixed ^ (mixed >>> 32));
+        }
+    }
+}
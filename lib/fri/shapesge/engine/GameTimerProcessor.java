@@ -22,6 +22,16 @@ class GameTimerProcessor {
         this.timers.add(new TimerDetail(currentTime, msInterval * MILLISECONDS, message));
     }
 
+    // interval of the timer sending a message, -1 if there is none
+    public synchronized long getInterval(String message) {
+        for (var timer : this.timers) {
+            if (timer.getMessage().equals(message)) {
+                return timer.getInterval();
+            }
+        }
+        return -1;
+    }
+
     public synchronized void processTimers() {
         var currentTime = System.nanoTime();
 
@@ -52,6 +62,10 @@ class GameTimerProcessor {
             this.nextInvocation += this.nsInterval;
         }
 
+        public long getInterval() {
+            return this.nsInterval;
+        }
+
         public String getMessage() {
             return this.message;
         }
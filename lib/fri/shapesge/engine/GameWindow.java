@@ -6,13 +6,15 @@ import java.awt.AWTEvent;
 import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.GraphicsDevice;
 import java.awt.GraphicsEnvironment;
 import java.awt.GridLayout;
+import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
@@ -20,10 +22,12 @@ import java.awt.event.WindowEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.VolatileImage;
+import java.io.File;
 
 class GameWindow {
-    private static final GraphicsDevice DEVICE = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
-
     private final JFrame frame;
     private final GamePanel gamePanel;
     private final GameObjects gameObjects;
@@ -33,21 +37,35 @@ class GameWindow {
     private final int height;
     private final GameEventDispatcher gameEventDispatcher;
     private final Color backgroundColor;
-    private final boolean showInfo;
+    private volatile boolean showInfo;
+    private final GameKeyEvent infoToggleKey;
+    private final GameFrameStats frameStats;
+    private final GameInfoOverlay infoOverlay;
     private final boolean isFullscreen;
+    private final boolean integerScaling;
+    private final boolean smoothScaling;
     private final GameOnCloseOperation onCloseOperation;
+    private final GameSoftwareRenderer softwareRenderer;
+    private final boolean useSoftwareRenderer;
+    private final GameFrameCapture frameCapture;
 
-    GameWindow(GameObjects gameObjects, GameInputProcessor gameInputProcessor, GameFPSCounter fpsCounter, GameConfig gameConfig, GameParser gameParser, GameEventDispatcher gameEventDispatcher) {
+    GameWindow(GameObjects gameObjects, GameInputProcessor gameInputProcessor, GameFPSCounter fpsCounter, GameConfig gameConfig, GameParser gameParser, GameEventDispatcher gameEventDispatcher, GameSoftwareRenderer softwareRenderer, GameFrameStats frameStats) {
         this.gameObjects = gameObjects;
         this.gameInputProcessor = gameInputProcessor;
         this.fpsCounter = fpsCounter;
         this.gameEventDispatcher = gameEventDispatcher;
+        this.softwareRenderer = softwareRenderer;
+        this.useSoftwareRenderer = gameParser.parseSoftwareRenderer(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.RENDERER));
 
         this.width = gameConfig.getInt(GameConfig.WINDOW_SECTION, GameConfig.WINDOW_WIDTH);
         this.height = gameConfig.getInt(GameConfig.WINDOW_SECTION, GameConfig.WINDOW_HEIGHT);
         this.backgroundColor = gameParser.parseColor(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.CANVAS_BACKGROUND));
         this.showInfo = gameConfig.getBoolean(GameConfig.WINDOW_SECTION, GameConfig.SHOW_INFO);
+        this.infoToggleKey = gameParser.parseToggleKey(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.INFO_TOGGLE_KEY));
+        this.frameStats = frameStats;
         this.isFullscreen = gameConfig.getBoolean(GameConfig.WINDOW_SECTION, GameConfig.FULLSCREEN);
+        this.integerScaling = gameParser.parseIntegerScaling(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.FULLSCREEN_SCALING));
+        this.smoothScaling = gameParser.parseSmoothFilter(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.FULLSCREEN_FILTER));
 
         if (gameConfig.contains(GameConfig.WINDOW_SECTION, GameConfig.EXIT_ON_CLOSE)) {
             System.out.format("ShapesGE: Using deprecated %s setting, use %s instead", GameConfig.EXIT_ON_CLOSE, GameConfig.ON_CLOSE);
@@ -60,6 +78,36 @@ class GameWindow {
             this.onCloseOperation = gameParser.parseOnClose(gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.ON_CLOSE));
         }
 
+        var captureFormat = gameParser.parseCaptureMode(gameConfig.get(GameConfig.CAPTURE_SECTION, GameConfig.CAPTURE_MODE));
+        if (captureFormat == null) {
+            this.frameCapture = null;
+        } else {
+            this.frameCapture = new GameFrameCapture(
+                    captureFormat,
+                    new File(gameConfig.get(GameConfig.CAPTURE_SECTION, GameConfig.CAPTURE_DIRECTORY)),
+                    gameConfig.getInt(GameConfig.CAPTURE_SECTION, GameConfig.CAPTURE_BUFFERS),
+                    gameParser.parseCaptureDropOldest(gameConfig.get(GameConfig.CAPTURE_SECTION, GameConfig.CAPTURE_DROP_POLICY)),
+                    this.width,
+                    this.height
+            );
+        }
+
+        this.infoOverlay = new GameInfoOverlay(
+                frameStats,
+                fpsCounter,
+                gameObjects,
+                gameInputProcessor,
+                this.frameCapture,
+                gameConfig.getInt(GameConfig.WINDOW_SECTION, GameConfig.FPS)
+        );
+
+        if (GraphicsEnvironment.isHeadless()) {
+            // frames are only available through the software renderer
+            this.frame = null;
+            this.gamePanel = null;
+            return;
+        }
+
         this.gamePanel = new GamePanel();
 
         var windowTitle = gameConfig.get(GameConfig.WINDOW_SECTION, GameConfig.WINDOW_TITLE);
@@ -91,7 +139,7 @@ class GameWindow {
         if (this.isFullscreen) {
             this.frame.setUndecorated(true);
             this.frame.pack();
-            DEVICE.setFullScreenWindow(this.frame);
+            GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().setFullScreenWindow(this.frame);
         } else {
             this.frame.pack();
             this.frame.setResizable(false);
@@ -99,10 +147,18 @@ class GameWindow {
     }
 
     public void show() {
+        if (this.frame == null) {
+            return;
+        }
+
         this.frame.setVisible(true);
     }
 
     public void redraw() {
+        if (this.gamePanel == null) {
+            return;
+        }
+
         this.gamePanel.redraw();
     }
 
@@ -115,6 +171,10 @@ class GameWindow {
     }
 
     public void showIfNeeded() {
+        if (this.frame == null) {
+            return;
+        }
+
         if (this.onCloseOperation.getType() == GameOnCloseOperationType.HIDE) {
             if (!this.frame.isVisible()) {
                 this.frame.setVisible(true);
@@ -126,12 +186,27 @@ class GameWindow {
         private AffineTransform canvasTransform;
         private AffineTransform invertedCanvasTransform;
         private boolean covered;
+        private int integerScale;
+        private int scaledX;
+        private int scaledY;
+        private VolatileImage scaledTarget;
+        private BufferedImage captureImage;
+        private int[] capturePixels;
+        private final Point2D.Double pointer;
 
         GamePanel() {
             this.setPreferredSize(new Dimension(GameWindow.this.width, GameWindow.this.height));
             this.setFocusable(true);
+            this.pointer = new Point2D.Double();
             this.enableEvents(AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_MOTION_EVENT_MASK | AWTEvent.KEY_EVENT_MASK);
 
+            this.addFocusListener(new FocusAdapter() {
+                @Override
+                public void focusLost(FocusEvent e) {
+                    GameWindow.this.gameInputProcessor.releaseAll();
+                }
+            });
+
             this.addComponentListener(new ComponentAdapter() {
                 @Override
                 public void componentResized(ComponentEvent e) {
@@ -146,6 +221,8 @@ class GameWindow {
             var correctSize = this.getWidth() == GameWindow.this.width && this.getHeight() == GameWindow.this.height;
             var invalidSize = this.getWidth() == 0 || this.getHeight() == 0;
 
+            this.integerScale = 0;
+
             if (!GameWindow.this.isFullscreen || correctSize || invalidSize) {
                 this.canvasTransform = new AffineTransform();
                 this.invertedCanvasTransform = this.canvasTransform;
@@ -159,7 +236,17 @@ class GameWindow {
             this.covered = widthAspectRatio == heightAspectRatio;
 
             var transform = new AffineTransform();
-            if (widthAspectRatio < heightAspectRatio) {
+            var scale = (int)Math.min(widthAspectRatio, heightAspectRatio);
+            if (GameWindow.this.integerScaling && scale >= 1) {
+                // the frame is rendered at logical size and blitted once, scaled by a whole factor and letterboxed
+                this.integerScale = scale;
+                this.scaledX = (this.getWidth() - GameWindow.this.width * scale) / 2;
+                this.scaledY = (this.getHeight() - GameWindow.this.height * scale) / 2;
+                this.covered = this.scaledX == 0 && this.scaledY == 0;
+
+                transform.translate(this.scaledX, this.scaledY);
+                transform.scale(scale, scale);
+            } else if (widthAspectRatio < heightAspectRatio) {
                 transform.translate(0, (this.getHeight() - GameWindow.this.height * widthAspectRatio) / 2.0);
                 transform.scale(widthAspectRatio, widthAspectRatio);
             } else {
@@ -182,35 +269,110 @@ class GameWindow {
                 canvas.clearRect(0, 0, this.getWidth(), this.getHeight());
             }
 
+            var frame = this.renderFrame();
+
+            if (frame != null && this.integerScale > 0) {
+                canvas.setRenderingHint(
+                        RenderingHints.KEY_INTERPOLATION,
+                        GameWindow.this.smoothScaling
+                                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR
+                                : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+                );
+                canvas.drawImage(
+                        frame,
+                        this.scaledX,
+                        this.scaledY,
+                        GameWindow.this.width * this.integerScale,
+                        GameWindow.this.height * this.integerScale,
+                        null
+                );
+            }
+
             if (!this.canvasTransform.isIdentity()) {
                 canvas.transform(this.canvasTransform);
             }
 
-            canvas.setBackground(GameWindow.this.backgroundColor);
-            canvas.clearRect(0, 0, GameWindow.this.width, GameWindow.this.height);
-            canvas.setClip(0, 0, GameWindow.this.width, GameWindow.this.height);
+            if (frame == null) {
+                canvas.setBackground(GameWindow.this.backgroundColor);
+                canvas.clearRect(0, 0, GameWindow.this.width, GameWindow.this.height);
+                canvas.setClip(0, 0, GameWindow.this.width, GameWindow.this.height);
 
-            GameWindow.this.gameObjects.drawAll(canvas);
+                GameWindow.this.gameObjects.drawAll(canvas, 0, 0, GameWindow.this.width, GameWindow.this.height);
+            } else {
+                if (this.integerScale == 0) {
+                    canvas.drawImage(frame, 0, 0, null);
+                }
+                canvas.setClip(0, 0, GameWindow.this.width, GameWindow.this.height);
+            }
 
             if (GameWindow.this.showInfo) {
-                canvas.setColor(Color.black);
-                canvas.setXORMode(Color.white);
-
-                canvas.setFont(new Font("Serif", Font.PLAIN, 12 ));
-                canvas.drawString(
-                        String.format(
-                                "FPS: %d, Objects: %d",
-                                GameWindow.this.fpsCounter.getFPS(),
-                                GameWindow.this.gameObjects.getCount()
-                        ),
-                        1,
-                        12
-                );
+                GameWindow.this.infoOverlay.draw(canvas);
+            }
+        }
 
-                canvas.setPaintMode();
+        // returns the frame rendered at logical size, or null when it is drawn directly into the canvas
+        private Image renderFrame() {
+            if (GameWindow.this.frameCapture != null) {
+                return this.renderCapturedFrame();
+            } else if (GameWindow.this.useSoftwareRenderer) {
+                return GameWindow.this.softwareRenderer.render();
+            } else if (this.integerScale > 0) {
+                return this.renderScaledTarget();
+            } else {
+                return null;
             }
         }
 
+        private Image renderScaledTarget() {
+            do {
+                if (this.scaledTarget == null || this.scaledTarget.validate(this.getGraphicsConfiguration()) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    this.scaledTarget = this.createVolatileImage(GameWindow.this.width, GameWindow.this.height);
+                }
+
+                var targetCanvas = this.scaledTarget.createGraphics();
+                try {
+                    targetCanvas.setBackground(GameWindow.this.backgroundColor);
+                    targetCanvas.clearRect(0, 0, GameWindow.this.width, GameWindow.this.height);
+                    GameWindow.this.gameObjects.drawAll(targetCanvas, 0, 0, GameWindow.this.width, GameWindow.this.height);
+                } finally {
+                    targetCanvas.dispose();
+                }
+            } while (this.scaledTarget.contentsLost());
+
+            return this.scaledTarget;
+        }
+
+        // draws the logical frame into an image the capture can copy pixels from, then hands it over
+        private BufferedImage renderCapturedFrame() {
+            BufferedImage frame;
+            int[] pixels;
+
+            if (GameWindow.this.useSoftwareRenderer) {
+                frame = GameWindow.this.softwareRenderer.render();
+                pixels = GameWindow.this.softwareRenderer.getFramebuffer();
+            } else {
+                if (this.captureImage == null) {
+                    this.captureImage = new BufferedImage(GameWindow.this.width, GameWindow.this.height, BufferedImage.TYPE_INT_RGB);
+                    this.capturePixels = ((DataBufferInt)this.captureImage.getRaster().getDataBuffer()).getData();
+                }
+
+                var imageCanvas = this.captureImage.createGraphics();
+                try {
+                    imageCanvas.setBackground(GameWindow.this.backgroundColor);
+                    imageCanvas.clearRect(0, 0, GameWindow.this.width, GameWindow.this.height);
+                    GameWindow.this.gameObjects.drawAll(imageCanvas, 0, 0, GameWindow.this.width, GameWindow.this.height);
+                } finally {
+                    imageCanvas.dispose();
+                }
+
+                frame = this.captureImage;
+                pixels = this.capturePixels;
+            }
+
+            GameWindow.this.frameCapture.capture(pixels);
+            return frame;
+        }
+
         public synchronized void redraw() {
             // Check if component is displayable (has a valid peer) before creating buffer strategy
             // This prevents IllegalStateException on macOS where component may not be ready yet
@@ -224,6 +386,7 @@ class GameWindow {
                 bufferStrategy = this.getBufferStrategy();
             }
 
+            GameWindow.this.frameStats.beginPhase();
             do {
                 do {
                     final var canvas = (Graphics2D)bufferStrategy.getDrawGraphics();
@@ -233,14 +396,21 @@ class GameWindow {
                         canvas.dispose();
                     }
                 } while (bufferStrategy.contentsRestored());
+                GameWindow.this.frameStats.endPhase(GameFrameStats.DRAW);
 
                 bufferStrategy.show();
+                GameWindow.this.frameStats.endPhase(GameFrameStats.PRESENT);
             } while (bufferStrategy.contentsLost());
         }
 
         @Override
         protected void processKeyEvent(KeyEvent e) {
             super.processKeyEvent(e);
+
+            if (GameWindow.this.infoToggleKey != null && GameWindow.this.infoToggleKey.matches(e)) {
+                GameWindow.this.showInfo = !GameWindow.this.showInfo;
+                return;
+            }
             GameWindow.this.gameInputProcessor.processKeyEvent(e);
         }
 
@@ -249,7 +419,7 @@ class GameWindow {
             super.processMouseEvent(e);
 
             var transformedEvent = this.transformMouseEvent(e);
-            if (!this.isOnCanvas(transformedEvent)) {
+            if (!this.isOnCanvas(transformedEvent.getX(), transformedEvent.getY())) {
                 return;
             }
             GameWindow.this.gameInputProcessor.processMouseEvent(transformedEvent);
@@ -259,11 +429,19 @@ class GameWindow {
         protected void processMouseMotionEvent(MouseEvent e) {
             super.processMouseMotionEvent(e);
 
-            var transformedEvent = this.transformMouseEvent(e);
-            if (!this.isOnCanvas(transformedEvent)) {
+            // every motion sample only updates the pointer, the game loop reads it once per frame
+            var xy = this.pointer;
+            xy.setLocation(e.getX(), e.getY());
+            this.invertedCanvasTransform.transform(xy, xy);
+            var x = (int)Math.round(xy.getX());
+            var y = (int)Math.round(xy.getY());
+            GameWindow.this.gameInputProcessor.updatePointer(x, y);
+
+            // motion events are built and dispatched only when something is bound to them
+            if (!GameWindow.this.gameInputProcessor.hasMouseBindings(e.getID()) || !this.isOnCanvas(x, y)) {
                 return;
             }
-            GameWindow.this.gameInputProcessor.processMouseEvent(transformedEvent);
+            GameWindow.this.gameInputProcessor.processMouseEvent(this.transformMouseEvent(e));
         }
 
         private MouseEvent transformMouseEvent(MouseEvent e) {
@@ -286,11 +464,11 @@ class GameWindow {
         }
 
         @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-        private boolean isOnCanvas(MouseEvent e) {
-            return e.getX() >= 0
-                    && e.getY() >= 0
-                    && e.getX() < GameWindow.this.width
-                    && e.getY() < GameWindow.this.height;
+        private boolean isOnCanvas(int x, int y) {
+            return x >= 0
+                    && y >= 0
+                    && x < GameWindow.this.width
+                    && y < GameWindow.this.height;
         }
     }
 }
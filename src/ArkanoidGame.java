@@ -1,5 +1,9 @@
 import fri.shapesge.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 /**
  * Main game class for Arkanoid.
  * Manages the game loop, game objects, collision detection, and user input.
@@ -11,29 +15,74 @@ public class ArkanoidGame {
     // Game framework
     private Manager manager;
     private GameState currentState;
+    private boolean mouseControl;
+    private int lastPointerX;
+    // One stepper per core, each moves a contiguous range of the balls
+    private final BallStepper[] steppers;
+    // Finds the balls close to each other
+    private final SweepAndPrune ballPairs = new SweepAndPrune();
 
     // Game objects
-    private Ball ball;
+    private ArrayList<Ball> balls;
     private Paddle paddle;
     private BrickGrid brickGrid;
 
+    // Earliest contact of every brick in the current tick, a brick is claimed when its stamp is the tick's
+    private int[] claimStamps;
+    private int[] claimBalls;
+    private double[] claimTimes;
+    private int claimStamp;
+
     // UI elements
     private TextBlock scoreText;
     private TextBlock livesText;
     private TextBlock stateText;
+    private ShapeBatch guideDots;
+    private boolean showGuide;
+    // Predicts the contacts of the first ball for the aim guide
+    private final TrajectoryPredictor predictor;
 
     // Game state variables
     private int score;
     private int lives;
     private final int canvasWidth = 800;
     private final int canvasHeight = 600;
+    private final Level level;
+    private final int servedBalls;
+    // length of a tick in nanoseconds, taken from the tick timer in sbge.ini
+    private final long tickLength;
+    // With fewer balls, handing them to other threads costs more than moving them
+    private static final int PARALLEL_THRESHOLD = 64;
+    // The disruption power-up does not split balls beyond this
+    private static final int MAX_BALLS = 3000;
+    // Contacts shown by the aim guide
+    private static final int GUIDE_CONTACTS = 6;
 
     /**
      * Creates and initializes a new Arkanoid game.
      * Sets up the canvas, creates game objects, and starts the game loop.
      */
     public ArkanoidGame() {
+        this(Level.STANDARD, 1);
+    }
+
+    /**
+     * Creates and initializes a new Arkanoid game on a level, optionally with several balls.
+     *
+     * @param level the level to play
+     * @param servedBalls the number of balls served at the start and after losing a life, at least 1
+     */
+    public ArkanoidGame(Level level, int servedBalls) {
+        this.level = level;
+        this.servedBalls = Math.max(1, Math.min(servedBalls, MAX_BALLS));
         manager = new Manager();
+        tickLength = manager.getTimerInterval("tick");
+        predictor = new TrajectoryPredictor(canvasWidth, GUIDE_CONTACTS);
+
+        steppers = new BallStepper[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < steppers.length; i++) {
+            steppers[i] = new BallStepper(canvasWidth, canvasHeight);
+        }
 
         // Note: Canvas size, background, and tick interval are configured in sbge.ini
 
@@ -47,25 +96,50 @@ public class ArkanoidGame {
         currentState = GameState.PLAYING;
         score = 0;
         lives = 3;
+        mouseControl = false;
+        lastPointerX = -1;
 
         // Start managing this game
         manager.manageObject(this);
     }
 
     /**
-     * Initializes all game objects (ball, paddle, brick grid).
+     * Initializes all game objects (balls, paddle, brick grid).
      */
     private void initializeGameObjects() {
-        // Ball starts at center
-        ball = new Ball(canvasWidth / 2, canvasHeight - 100);
-        ball.makeVisible();
+        // Balls start at center
+        balls = new ArrayList<>();
+        serveBalls();
 
         // Paddle starts at bottom center
         paddle = new Paddle(canvasWidth / 2 - 50, canvasHeight - 40, canvasWidth);
         paddle.makeVisible();
 
         // Create brick grid
-        brickGrid = new BrickGrid(canvasWidth, canvasHeight);
+        if (level == Level.STRESS) {
+            brickGrid = BrickGrid.createStressLevel(canvasWidth);
+        } else if (level == Level.TILTED) {
+            brickGrid = BrickGrid.createTiltedLevel(canvasWidth);
+        } else {
+            brickGrid = new BrickGrid(canvasWidth, canvasHeight);
+        }
+
+        int brickCount = brickGrid.getBrickCount();
+        claimStamps = new int[brickCount];
+        claimBalls = new int[brickCount];
+        claimTimes = new double[brickCount];
+        claimStamp = 0;
+    }
+
+    /**
+     * Serves new balls from the center, spread between up-right and up-left.
+     */
+    private void serveBalls() {
+        for (int i = 0; i < servedBalls; i++) {
+            Ball ball = new Ball(canvasWidth / 2, canvasHeight - 100, 45 - 90.0 * i / servedBalls);
+            ball.makeVisible();
+            balls.add(ball);
+        }
     }
 
     /**
@@ -89,6 +163,13 @@ public class ArkanoidGame {
         stateText.changeColor("yellow");
         stateText.changeFont("Arial", FontStyle.BOLD, 16);
         stateText.makeVisible();
+
+        // Aim guide, a dot at every predicted contact of the first ball
+        guideDots = new ShapeBatch(BatchShape.CIRCLE, GUIDE_CONTACTS);
+        guideDots.changeColor(1, "cyan");
+        guideDots.changeCount(0);
+        guideDots.makeVisible();
+        showGuide = false;
     }
 
     /**
@@ -97,119 +178,155 @@ public class ArkanoidGame {
      */
     public void tick() {
         if (currentState == GameState.PLAYING) {
-            // Update ball position
-            ball.update();
+            // Move paddle by the held keys
+            movePaddle();
 
-            // Check collisions
-            checkCollisions();
+            // Move the balls, bouncing off everything they hit on the way
+            moveBalls();
+            updateGuide();
 
             // Check win/lose conditions
             if (brickGrid.getVisibleCount() == 0) {
                 currentState = GameState.WIN;
                 stateText.changeText("YOU WIN!");
                 stateText.changeColor("green");
-            } else if (Collision.hitsBottomWall(ball.getY(), ball.getRadius(), canvasHeight)) {
+            } else if (balls.isEmpty()) {
                 loseLife();
             }
         }
     }
 
     /**
-     * Checks for all collisions (ball-paddle, ball-wall, ball-brick).
+     * Shows where the first ball will bounce, if the aim guide is on.
      */
-    private void checkCollisions() {
-        // Ball-paddle collision using swept collision detection
-        Collision.SweptCollisionResult paddleCollision = Collision.sweptCircleRect(
-            ball.getPreviousX(), ball.getPreviousY(),
-            ball.getX(), ball.getY(),
-            ball.getRadius(),
-            paddle.getX(), paddle.getY(), paddle.getWidth(), paddle.getHeight()
-        );
-
-        if (paddleCollision.collided) {
-            // Position ball at collision point
-            ball.setPosition(paddleCollision.collisionX, paddleCollision.collisionY);
-
-            // Bounce based on which edge was hit
-            if (paddleCollision.edge == Collision.CollisionEdge.TOP ||
-                paddleCollision.edge == Collision.CollisionEdge.BOTTOM) {
-                ball.reverseVertical();
-            } else if (paddleCollision.edge == Collision.CollisionEdge.LEFT ||
-                       paddleCollision.edge == Collision.CollisionEdge.RIGHT) {
-                ball.reverseHorizontal();
+    private void updateGuide() {
+        int contacts = 0;
+        if (showGuide && !balls.isEmpty()) {
+            contacts = predictor.predict(balls.get(0), paddle, brickGrid);
+        }
+
+        for (int i = 0; i < contacts; i++) {
+            guideDots.changeShape(i, predictor.getContactX(i) - 3, predictor.getContactY(i) - 3, 6, 1);
+        }
+        guideDots.changeCount(contacts);
+    }
+
+    /**
+     * Moves all balls through one tick. Every ball is moved against the bricks as they were
+     * at the start of the tick, in parallel when there are many, and the bricks they hit are hit afterwards.
+     * Balls that fell off the bottom of the screen are removed.
+     */
+    private void moveBalls() {
+        int count = balls.size();
+        for (BallStepper stepper : steppers) {
+            stepper.clearContacts();
+        }
+
+        if (count < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < count; i++) {
+                steppers[0].step(balls.get(i), i, paddle, brickGrid);
             }
+        } else {
+            // The ranges follow the order of the balls, so the contacts do too
+            int workers = steppers.length;
+            IntStream.range(0, workers).parallel().forEach(worker -> {
+                int end = (int) ((long) count * (worker + 1) / workers);
+                for (int i = (int) ((long) count * worker / workers); i < end; i++) {
+                    steppers[worker].step(balls.get(i), i, paddle, brickGrid);
+                }
+            });
         }
 
-        // Ball-wall collisions
-        if (Collision.hitsLeftWall(ball.getX(), ball.getRadius()) ||
-            Collision.hitsRightWall(ball.getX(), ball.getRadius(), canvasWidth)) {
-            ball.reverseHorizontal();
+        hitClaimedBricks();
+        bounceBallsOffEachOther();
+
+        for (int i = balls.size() - 1; i >= 0; i--) {
+            Ball ball = balls.get(i);
+            if (Collision.hitsBottomWall(ball.getY(), ball.getRadius(), canvasHeight)) {
+                ball.makeInvisible();
+                balls.remove(i);
+            } else {
+                ball.syncShape();
+            }
+        }
+    }
+
+    /**
+     * Bounces the balls that touch each other.
+     * The sweep and prune finds the pairs of balls whose boxes overlap, only those are tested exactly.
+     */
+    private void bounceBallsOffEachOther() {
+        int count = balls.size();
+        if (count < 2) {
+            return;
         }
-        if (Collision.hitsTopWall(ball.getY(), ball.getRadius())) {
-            ball.reverseVertical();
+
+        ballPairs.setCount(count);
+        for (int i = 0; i < count; i++) {
+            Ball ball = balls.get(i);
+            int radius = FixedPoint.fromInt(ball.getRadius());
+            ballPairs.setBox(i, ball.getFixedX() - radius, ball.getFixedY() - radius,
+                ball.getFixedX() + radius, ball.getFixedY() + radius);
         }
 
-        // Ball-brick collisions
-        checkBrickCollisions();
+        int pairs = ballPairs.findPairs();
+        for (int i = 0; i < pairs; i++) {
+            Ball first = balls.get(ballPairs.getPairFirst(i));
+            Ball second = balls.get(ballPairs.getPairSecond(i));
+            int radius = FixedPoint.fromInt(first.getRadius());
+            if (Collision.circlesCollide(first.getFixedX(), first.getFixedY(), radius,
+                    second.getFixedX(), second.getFixedY(), radius)) {
+                first.bounceOff(second);
+            }
+        }
     }
 
     /**
-     * Checks for collisions between the ball and all visible bricks.
-     * Destroys bricks on collision and updates the score.
-     * Uses swept collision detection to determine exact collision point and which edge was hit.
+     * Hits the bricks touched by the balls in this tick, each brick once.
+     * A brick touched by several balls, or several times, is claimed by its earliest contact,
+     * ties go to the ball with the lower index, so the result does not depend on the threads.
      */
-    private void checkBrickCollisions() {
-        Collision.SweptCollisionResult earliestCollision = null;
-        Brick hitBrick = null;
-
-        // Find the earliest collision among all bricks
-        for (int row = 0; row < brickGrid.getRows(); row++) {
-            for (int col = 0; col < brickGrid.getCols(); col++) {
-                Brick brick = brickGrid.getBrick(row, col);
-
-                if (brick.isVisible()) {
-                    Collision.SweptCollisionResult collision = Collision.sweptCircleRect(
-                        ball.getPreviousX(), ball.getPreviousY(),
-                        ball.getX(), ball.getY(),
-                        ball.getRadius(),
-                        brick.getX(), brick.getY(), brick.getWidth(), brick.getHeight()
-                    );
-
-                    // Keep track of the earliest collision
-                    if (collision.collided) {
-                        if (earliestCollision == null || collision.collisionTime < earliestCollision.collisionTime) {
-                            earliestCollision = collision;
-                            hitBrick = brick;
-                        }
-                    }
+    private void hitClaimedBricks() {
+        claimStamp++;
+        if (claimStamp == 0) {
+            // Stamps wrapped around, old stamps could look like the current one
+            Arrays.fill(claimStamps, 0);
+            claimStamp = 1;
+        }
+
+        for (BallStepper stepper : steppers) {
+            for (int i = 0; i < stepper.getContactCount(); i++) {
+                int brick = stepper.getContactBrick(i);
+                double time = stepper.getContactTime(i);
+                if (claimStamps[brick] != claimStamp || time < claimTimes[brick]) {
+                    claimStamps[brick] = claimStamp;
+                    claimBalls[brick] = stepper.getContactBall(i);
+                    claimTimes[brick] = time;
                 }
             }
         }
 
-        // Handle the earliest collision
-        if (earliestCollision != null && hitBrick != null) {
-            // Position ball at collision point
-            ball.setPosition(earliestCollision.collisionX, earliestCollision.collisionY);
-
-            // Bounce based on which edge was hit
-            if (earliestCollision.edge == Collision.CollisionEdge.TOP ||
-                earliestCollision.edge == Collision.CollisionEdge.BOTTOM) {
-                ball.reverseVertical();
-            } else if (earliestCollision.edge == Collision.CollisionEdge.LEFT ||
-                       earliestCollision.edge == Collision.CollisionEdge.RIGHT) {
-                ball.reverseHorizontal();
+        for (BallStepper stepper : steppers) {
+            for (int i = 0; i < stepper.getContactCount(); i++) {
+                int brick = stepper.getContactBrick(i);
+                if (claimStamps[brick] == claimStamp && claimBalls[brick] == stepper.getContactBall(i)
+                        && claimTimes[brick] == stepper.getContactTime(i)) {
+                    // The winning contact, later contacts of the brick must not hit it again
+                    claimStamps[brick] = 0;
+
+                    // Hit the brick through the grid so the remaining brick count stays correct
+                    if (brickGrid.hitBrick(brick)) {
+                        score += 10;
+                        updateScoreDisplay();
+                    }
+                }
             }
-
-            // Destroy the brick and update score
-            hitBrick.destroy();
-            score += 10;
-            updateScoreDisplay();
         }
     }
 
     /**
-     * Handles losing a life when the ball falls off the screen.
-     * Resets the ball or ends the game if no lives remain.
+     * Handles losing a life when the last ball falls off the screen.
+     * Serves new balls or ends the game if no lives remain.
      */
     private void loseLife() {
         lives--;
@@ -219,12 +336,8 @@ public class ArkanoidGame {
             currentState = GameState.GAME_OVER;
             stateText.changeText("GAME OVER");
             stateText.changeColor("red");
-            ball.makeInvisible();
         } else {
-            // Reset ball position
-            ball.makeInvisible();
-            ball = new Ball(canvasWidth / 2, canvasHeight - 100);
-            ball.makeVisible();
+            serveBalls();
         }
     }
 
@@ -243,21 +356,29 @@ public class ArkanoidGame {
     }
 
     /**
-     * Moves the paddle to the left.
-     * Called automatically by the framework when LEFT arrow is pressed.
-     * Mapped in sbge.ini: moveLeft = pressed LEFT
+     * Moves the paddle by how long the LEFT and RIGHT arrows were held since the last tick.
+     * A key tapped in the middle of a tick moves the paddle only for the time it was down.
+     * Moving the mouse switches to mouse control, pressing an arrow switches back.
      */
-    public void moveLeft() {
-        paddle.moveLeft();
-    }
+    private void movePaddle() {
+        long leftHeld = manager.takeKeyHeldTime("LEFT");
+        long rightHeld = manager.takeKeyHeldTime("RIGHT");
+        if (leftHeld > 0 || rightHeld > 0) {
+            mouseControl = false;
+            paddle.moveByHeldTime(leftHeld, rightHeld, tickLength);
+            return;
+        }
 
-    /**
-     * Moves the paddle to the right.
-     * Called automatically by the framework when RIGHT arrow is pressed.
-     * Mapped in sbge.ini: moveRight = pressed RIGHT
-     */
-    public void moveRight() {
-        paddle.moveRight();
+        if (manager.hasPointer()) {
+            int pointerX = manager.getPointerX();
+            if (pointerX != lastPointerX) {
+                mouseControl = true;
+                lastPointerX = pointerX;
+            }
+            if (mouseControl) {
+                paddle.followPointer(pointerX);
+            }
+        }
     }
 
     /**
@@ -275,6 +396,37 @@ public class ArkanoidGame {
         }
     }
 
+    /**
+     * Splits every ball into three, the disruption power-up.
+     * Called automatically by the framework when D is pressed.
+     * Mapped in sbge.ini: disruption = pressed D
+     */
+    public void disruption() {
+        if (currentState != GameState.PLAYING) {
+            return;
+        }
+
+        int count = balls.size();
+        for (int i = 0; i < count && balls.size() + 2 <= MAX_BALLS; i++) {
+            Ball ball = balls.get(i);
+            for (int angle = -20; angle <= 20; angle += 40) {
+                Ball split = ball.split(angle);
+                split.makeVisible();
+                balls.add(split);
+            }
+        }
+    }
+
+    /**
+     * Turns the aim guide on or off.
+     * Called automatically by the framework when G is pressed.
+     * Mapped in sbge.ini: guide = pressed G
+     */
+    public void guide() {
+        showGuide = !showGuide;
+        updateGuide();
+    }
+
     /**
      * Restarts the game by resetting all game objects and state.
      * Called automatically by the framework when R key is pressed.
@@ -282,8 +434,11 @@ public class ArkanoidGame {
      */
     public void restart() {
         // Remove old objects
-        ball.makeInvisible();
+        for (Ball ball : balls) {
+            ball.makeInvisible();
+        }
         paddle.makeInvisible();
+        brickGrid.makeInvisible();
 
         // Reset game state
         currentState = GameState.PLAYING;
@@ -302,9 +457,21 @@ public class ArkanoidGame {
      * Entry point for the Arkanoid game.
      * Creates a new game instance and starts the game loop.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments, --stress starts the stress level, --tilted the level
+     *             of slanted bricks, --balls followed by a number serves that many balls
      */
     public static void main(String[] args) {
-        new ArkanoidGame();
+        Level level = Level.STANDARD;
+        int servedBalls = 1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--stress")) {
+                level = Level.STRESS;
+            } else if (args[i].equals("--tilted")) {
+                level = Level.TILTED;
+            } else if (args[i].equals("--balls") && i + 1 < args.length) {
+                servedBalls = Integer.parseInt(args[++i]);
+            }
+        }
+        new ArkanoidGame(level, servedBalls);
     }
 }
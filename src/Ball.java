@@ -3,6 +3,8 @@ import fri.shapesge.Circle;
 /**
  * Represents the ball in the Arkanoid game.
  * The ball moves continuously and bounces off walls, the paddle, and bricks.
+ * The game moves it along its velocity and repositions it at every contact,
+ * the circle follows when syncShape is called.
  *
  * @author ArkanoidGame
  * @version 1.0
@@ -10,59 +12,100 @@ import fri.shapesge.Circle;
 public class Ball {
     // Fields
     private Circle shape;
-    private double velocityX;
-    private double velocityY;
-    private final double speed = 3.0;
+    private final double speed = 4.25;
     private final int radius = 10;
-    private int previousX;
-    private int previousY;
+    // Center and velocity in 16.16 fixed point, the shape shows the center rounded to whole pixels
+    private int x;
+    private int y;
+    private int velocityX;
+    private int velocityY;
 
     /**
-     * Creates a new Ball at the specified starting position.
+     * Creates a new Ball at the specified starting position, moving up and to the right.
      *
      * @param startX the initial x-coordinate of the ball's center
      * @param startY the initial y-coordinate of the ball's center
      */
     public Ball(int startX, int startY) {
-        shape = new Circle(radius * 2, radius * 2);
-        shape.changePosition(startX, startY);
-        shape.changeColor("white");
-        velocityX = speed;
-        velocityY = -speed;
-        previousX = startX;
-        previousY = startY;
+        this(startX, startY, 45);
     }
 
     /**
-     * Updates the ball's position based on its velocity.
-     * Should be called every game tick.
+     * Creates a new Ball at the specified starting position, moving in a direction.
+     *
+     * @param startX the initial x-coordinate of the ball's center
+     * @param startY the initial y-coordinate of the ball's center
+     * @param angle the direction in degrees clockwise from straight up
      */
-    public void update() {
-        // Store previous position for swept collision detection
-        previousX = shape.getX();
-        previousY = shape.getY();
+    public Ball(int startX, int startY, double angle) {
+        this(FixedPoint.fromInt(startX), FixedPoint.fromInt(startY), 0, 0);
+        double radians = Math.toRadians(angle);
+        velocityX = FixedPoint.fromDouble(speed * Math.sin(radians));
+        velocityY = FixedPoint.fromDouble(-speed * Math.cos(radians));
+    }
 
-        int newX = shape.getX() + (int) velocityX;
-        int newY = shape.getY() + (int) velocityY;
-        shape.changePosition(newX, newY);
+    private Ball(int fixedX, int fixedY, int velocityX, int velocityY) {
+        shape = new Circle();
+        shape.changeSize(radius * 2);
+        shape.changeColor("white");
+        x = fixedX;
+        y = fixedY;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        shape.changePosition(getX() - radius, getY() - radius);
     }
 
     /**
-     * Gets the x-coordinate of the ball's center.
+     * Creates a new ball at the position of this one, moving in a direction turned by an angle.
+     * Used by the disruption power-up to split a ball.
+     *
+     * @param angle the angle between the directions in degrees, clockwise
+     * @return the new ball, invisible
+     */
+    public Ball split(double angle) {
+        double radians = Math.toRadians(angle);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        // Velocities are already fixed point, the rotated ones only need rounding
+        return new Ball(x, y,
+            (int) Math.round(velocityX * cos - velocityY * sin),
+            (int) Math.round(velocityX * sin + velocityY * cos));
+    }
+
+    /**
+     * Gets the x-coordinate of the ball's center, rounded to whole pixels.
      *
      * @return the x-coordinate
      */
     public int getX() {
-        return shape.getX();
+        return FixedPoint.round(x);
     }
 
     /**
-     * Gets the y-coordinate of the ball's center.
+     * Gets the y-coordinate of the ball's center, rounded to whole pixels.
      *
      * @return the y-coordinate
      */
     public int getY() {
-        return shape.getY();
+        return FixedPoint.round(y);
+    }
+
+    /**
+     * Gets the exact x-coordinate of the ball's center.
+     *
+     * @return the x-coordinate in 16.16 fixed point
+     */
+    public int getFixedX() {
+        return x;
+    }
+
+    /**
+     * Gets the exact y-coordinate of the ball's center.
+     *
+     * @return the y-coordinate in 16.16 fixed point
+     */
+    public int getFixedY() {
+        return y;
     }
 
     /**
@@ -84,21 +127,70 @@ public class Ball {
     }
 
     /**
-     * Gets the previous x-coordinate of the ball's center.
+     * Gets the horizontal distance the ball moves in a tick.
+     *
+     * @return the horizontal velocity in pixels per tick, 16.16 fixed point
+     */
+    public int getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Gets the vertical distance the ball moves in a tick.
+     *
+     * @return the vertical velocity in pixels per tick, 16.16 fixed point
+     */
+    public int getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * Bounces this ball and another one off each other, like two billiard balls of the same weight.
+     * The parts of their velocities along the line between the centers are exchanged,
+     * balls already moving apart are left alone.
      *
-     * @return the previous x-coordinate
+     * @param other the ball touching this one
      */
-    public int getPreviousX() {
-        return previousX;
+    public void bounceOff(Ball other) {
+        double normalX = (double) other.x - x;
+        double normalY = (double) other.y - y;
+        double length = Math.hypot(normalX, normalY);
+        if (length == 0) {
+            // Balls split from each other start at the same point, there is no direction to bounce in
+            return;
+        }
+        normalX /= length;
+        normalY /= length;
+
+        double approach = (velocityX - other.velocityX) * normalX + (velocityY - other.velocityY) * normalY;
+        if (approach <= 0) {
+            return;
+        }
+
+        // Whatever one ball loses the other gains, so rounding never changes the total
+        int exchangeX = (int) Math.round(approach * normalX);
+        int exchangeY = (int) Math.round(approach * normalY);
+        velocityX -= exchangeX;
+        velocityY -= exchangeY;
+        other.velocityX += exchangeX;
+        other.velocityY += exchangeY;
     }
 
     /**
-     * Gets the previous y-coordinate of the ball's center.
+     * Bounces the ball off a surface, mirroring its velocity about the surface.
+     * The part of the velocity along the normal is reversed, a ball already moving away is left alone.
+     * Bouncing off a horizontal or vertical surface only reverses one direction, exactly.
      *
-     * @return the previous y-coordinate
+     * @param normalX the horizontal part of the surface's outward unit normal
+     * @param normalY the vertical part of the surface's outward unit normal
      */
-    public int getPreviousY() {
-        return previousY;
+    public void reflect(double normalX, double normalY) {
+        double approach = velocityX * normalX + velocityY * normalY;
+        if (approach >= 0) {
+            return;
+        }
+        velocityX -= (int) Math.round(2 * approach * normalX);
+        velocityY -= (int) Math.round(2 * approach * normalY);
     }
 
     /**
@@ -131,12 +223,27 @@ public class Ball {
 
     /**
      * Sets the ball's position to specific coordinates.
-     * Used for repositioning after collision detection.
+     * Used for moving the ball and repositioning it at a contact.
+     * Only the position of the ball changes, the circle is moved by syncShape,
+     * so balls can be moved on other threads than the one drawing them.
      *
-     * @param x the new x-coordinate of the ball's center
-     * @param y the new y-coordinate of the ball's center
+     * @param fixedX the new x-coordinate of the ball's center in 16.16 fixed point
+     * @param fixedY the new y-coordinate of the ball's center in 16.16 fixed point
+     */
+    public void setFixedPosition(int fixedX, int fixedY) {
+        x = fixedX;
+        y = fixedY;
+    }
+
+    /**
+     * Moves the circle to the ball's position rounded to whole pixels.
+     * The circle moves only when the rounded position changed.
      */
-    public void setPosition(int x, int y) {
-        shape.changePosition(x, y);
+    public void syncShape() {
+        int shapeX = getX() - radius;
+        int shapeY = getY() - radius;
+        if (shapeX != shape.getX() || shapeY != shape.getY()) {
+            shape.changePosition(shapeX, shapeY);
+        }
     }
 }
@@ -0,0 +1,246 @@
+import java.util.Arrays;
+
+/**
+ * Moves balls through one tick, bouncing them off the walls, the paddle and the bricks.
+ * A stepper only reads the paddle and the bricks and records the bricks its balls hit,
+ * so several steppers can move different balls on different threads at once.
+ * The game applies the recorded hits afterwards.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public class BallStepper {
+    // Contacts resolved in one tick at most, bounds the work for a ball wedged in a corner
+    private static final int MAX_CONTACTS_PER_TICK = 8;
+    // Walls are thicker than the ball can move in a tick, so it never passes through them
+    private static final int WALL_THICKNESS = 1000;
+    // What the ball touched other than a brick, brick contacts are brick ids
+    private static final int NO_CONTACT = -1;
+    private static final int PADDLE_CONTACT = -2;
+    private static final int LEFT_WALL_CONTACT = -3;
+    private static final int RIGHT_WALL_CONTACT = -4;
+    private static final int TOP_WALL_CONTACT = -5;
+
+    // Fields
+    private final int canvasWidth;
+    private final int canvasHeight;
+    // Reused by every collision test, so stepping creates no garbage
+    private final Collision.SweptHit hit = new Collision.SweptHit();
+    private UniformGrid.Query query;
+    private BrickGrid queriedGrid;
+    private int[] contactBricks;
+    private int[] contactBalls;
+    private double[] contactTimes;
+    private int contactCount;
+
+    /**
+     * Creates a stepper for balls on a canvas.
+     *
+     * @param canvasWidth the width of the game canvas
+     * @param canvasHeight the height of the game canvas
+     */
+    public BallStepper(int canvasWidth, int canvasHeight) {
+        this.canvasWidth = canvasWidth;
+        this.canvasHeight = canvasHeight;
+        contactBricks = new int[16];
+        contactBalls = new int[16];
+        contactTimes = new double[16];
+        contactCount = 0;
+    }
+
+    /**
+     * Forgets the brick hits recorded so far, called at the start of every tick.
+     */
+    public void clearContacts() {
+        contactCount = 0;
+    }
+
+    /**
+     * Moves a ball through one tick, bouncing off everything it touches on the way.
+     * The earliest contact among the paddle, the walls and the bricks near the path is found,
+     * the ball advances to it and bounces, and the rest of the tick continues from there,
+     * so a fast ball meets a second brick or a corner in the same tick instead of passing through it.
+     * At most MAX_CONTACTS_PER_TICK contacts are resolved, a ball wedged in a corner stops at its last one.
+     * Bricks are not hit, every brick contact is recorded with the ball and the time within the tick.
+     *
+     * @param ball the ball to move
+     * @param ballIndex the index of the ball, recorded with its brick contacts
+     * @param paddle the paddle
+     * @param brickGrid the bricks, only read
+     */
+    public void step(Ball ball, int ballIndex, Paddle paddle, BrickGrid brickGrid) {
+        if (queriedGrid != brickGrid) {
+            // A new level, the query must fit its bricks
+            query = brickGrid.createQuery();
+            queriedGrid = brickGrid;
+        }
+
+        // All positions are in 16.16 fixed point, fractions of a pixel carry over between ticks
+        int x = ball.getFixedX();
+        int y = ball.getFixedY();
+        double elapsed = 0.0;
+        int lastContact = NO_CONTACT;
+
+        for (int contacts = 0; contacts < MAX_CONTACTS_PER_TICK; contacts++) {
+            double remaining = 1.0 - elapsed;
+            int targetX = x + (int) Math.round(ball.getVelocityX() * remaining);
+            int targetY = y + (int) Math.round(ball.getVelocityY() * remaining);
+            if (targetX == x && targetY == y) {
+                // Too little of the tick left to move at all
+                return;
+            }
+
+            int contact = findEarliestContact(ball, paddle, brickGrid, x, y, targetX, targetY, lastContact);
+            if (contact == NO_CONTACT) {
+                ball.setFixedPosition(targetX, targetY);
+                return;
+            }
+
+            bounceAtHit(ball);
+            x = hit.x;
+            y = hit.y;
+            elapsed += remaining * hit.time;
+            lastContact = contact;
+
+            if (contact >= 0) {
+                recordContact(contact, ballIndex, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of brick contacts recorded since the last clearContacts.
+     *
+     * @return the number of contacts
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Gets the brick of a recorded contact.
+     *
+     * @param index the index of the contact, contacts of a ball are in the order they happened
+     * @return the id of the brick
+     */
+    public int getContactBrick(int index) {
+        return contactBricks[index];
+    }
+
+    /**
+     * Gets the ball of a recorded contact.
+     *
+     * @param index the index of the contact
+     * @return the index of the ball
+     */
+    public int getContactBall(int index) {
+        return contactBalls[index];
+    }
+
+    /**
+     * Gets the time of a recorded contact.
+     *
+     * @param index the index of the contact
+     * @return the time within the tick, 0.0 to 1.0
+     */
+    public double getContactTime(int index) {
+        return contactTimes[index];
+    }
+
+    /**
+     * Finds the earliest contact of a ball moving along a path and leaves it in the hit.
+     * The object touched by the previous contact is skipped, the ball starts the path touching it
+     * and already bounced away from it.
+     *
+     * @param ball the moving ball
+     * @param paddle the paddle
+     * @param brickGrid the bricks
+     * @param fromX the x-coordinate of the ball's center at the start of the path, 16.16 fixed point
+     * @param fromY the y-coordinate of the ball's center at the start of the path, 16.16 fixed point
+     * @param toX the x-coordinate of the ball's center at the end of the path, 16.16 fixed point
+     * @param toY the y-coordinate of the ball's center at the end of the path, 16.16 fixed point
+     * @param skipped the contact to skip, NO_CONTACT to test everything
+     * @return the brick id, one of the wall and paddle contacts, or NO_CONTACT if the path is free
+     */
+    private int findEarliestContact(Ball ball, Paddle paddle, BrickGrid brickGrid,
+                                    int fromX, int fromY, int toX, int toY, int skipped) {
+        // The swept test works in any unit, everything is passed in fixed point
+        int radius = FixedPoint.fromInt(ball.getRadius());
+        int wall = FixedPoint.fromInt(WALL_THICKNESS);
+        int width = FixedPoint.fromInt(canvasWidth);
+        int height = FixedPoint.fromInt(canvasHeight);
+        double earliestTime = Double.MAX_VALUE;
+        int contact = NO_CONTACT;
+
+        // Walls are thick rectangles just outside the canvas, the bottom is open
+        if (skipped != LEFT_WALL_CONTACT && Collision.sweptCircleRect(fromX, fromY, toX, toY, radius,
+                -wall, -wall, wall, height + wall * 2,
+                earliestTime, hit)) {
+            earliestTime = hit.time;
+            contact = LEFT_WALL_CONTACT;
+        }
+        if (skipped != RIGHT_WALL_CONTACT && Collision.sweptCircleRect(fromX, fromY, toX, toY, radius,
+                width, -wall, wall, height + wall * 2,
+                earliestTime, hit)) {
+            earliestTime = hit.time;
+            contact = RIGHT_WALL_CONTACT;
+        }
+        if (skipped != TOP_WALL_CONTACT && Collision.sweptCircleRect(fromX, fromY, toX, toY, radius,
+                -wall, -wall, width + wall * 2, wall,
+                earliestTime, hit)) {
+            earliestTime = hit.time;
+            contact = TOP_WALL_CONTACT;
+        }
+        if (skipped != PADDLE_CONTACT && Collision.sweptCircleRect(fromX, fromY, toX, toY, radius,
+                paddle.getFixedX(), FixedPoint.fromInt(paddle.getY()),
+                FixedPoint.fromInt(paddle.getWidth()), FixedPoint.fromInt(paddle.getHeight()),
+                earliestTime, hit)) {
+            earliestTime = hit.time;
+            contact = PADDLE_CONTACT;
+        }
+
+        // Only bricks in the grid cells overlapping the area swept by the ball can be hit
+        int found = brickGrid.findBricksNear(
+            FixedPoint.round(Math.min(fromX, toX) - radius) - 1,
+            FixedPoint.round(Math.min(fromY, toY) - radius) - 1,
+            FixedPoint.round(Math.max(fromX, toX) + radius) + 1,
+            FixedPoint.round(Math.max(fromY, toY) + radius) + 1,
+            query
+        );
+        for (int i = 0; i < found; i++) {
+            int brick = query.getFound(i);
+
+            // Only a collision earlier than the best one so far is written into the hit
+            if (brick != skipped && brickGrid.sweptHitBrick(brick, fromX, fromY, toX, toY, radius, earliestTime, hit)) {
+                earliestTime = hit.time;
+                contact = brick;
+            }
+        }
+
+        return contact;
+    }
+
+    /**
+     * Moves a ball to the collision point in the hit and bounces it off the surface that was hit.
+     * Slanted brick edges deflect the ball along their normals, the other surfaces just reverse one direction.
+     *
+     * @param ball the ball
+     */
+    private void bounceAtHit(Ball ball) {
+        ball.setFixedPosition(hit.x, hit.y);
+        ball.reflect(hit.normalX, hit.normalY);
+    }
+
+    private void recordContact(int brick, int ballIndex, double time) {
+        if (contactCount == contactBricks.length) {
+            int newLength = contactCount * 2;
+            contactBricks = Arrays.copyOf(contactBricks, newLength);
+            contactBalls = Arrays.copyOf(contactBalls, newLength);
+            contactTimes = Arrays.copyOf(contactTimes, newLength);
+        }
+        contactBricks[contactCount] = brick;
+        contactBalls[contactCount] = ballIndex;
+        contactTimes[contactCount] = time;
+        contactCount++;
+    }
+}
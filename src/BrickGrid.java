@@ -1,69 +1,441 @@
+import fri.shapesge.Polygon;
+import fri.shapesge.TileMap;
+
+import java.util.BitSet;
+
 /**
  * Represents a grid of bricks in the Arkanoid game.
  * Manages the creation, destruction, and tracking of all bricks.
+ * Bricks are stored as parallel arrays indexed by brick id (row * cols + col)
+ * with liveness in a bit set, so scanning them touches only a few flat arrays.
+ * All bricks are drawn by a single tile map whose tile ids are the hit points left,
+ * so damaging or destroying a brick only changes its tile.
+ * Live bricks are indexed in a uniform grid aligned to the brick layout, so collision checks
+ * only look at the bricks near the ball.
+ * A brick may also be given the shape of a convex polygon inside its cell, such a brick is drawn
+ * by its own polygon shape instead of a tile and collides along its slanted edges.
  *
  * @author ArkanoidGame
  * @version 1.0
  */
 public class BrickGrid {
+    // Colors of bricks by the hit points they have left
+    private static final String[] HIT_POINT_COLORS = {"red", "orange", "yellow"};
+    private static final int NO_POLYGON = -1;
+
     // Fields
-    private Brick[][] bricks;
+    private TileMap tiles;
+    private UniformGrid index;
+    private final int x;
+    private final int y;
+    private final int rows;
+    private final int cols;
+    private final int cellWidth;
+    private final int cellHeight;
+    private int[] brickX;
+    private int[] brickY;
+    private int[] brickWidth;
+    private int[] brickHeight;
+    private int[] hitPoints;
+    private BitSet alive;
     private int visibleBrickCount;
-    private final int rows = 4;
-    private final int cols = 8;
+    // Polygon of each brick in the store, NO_POLYGON for the plain rectangles
+    private ConvexPolygons polygons;
+    private int[] brickPolygon;
+    private Polygon[] brickShapes;
 
     /**
-     * Creates a new BrickGrid with the specified canvas dimensions.
-     * The grid is automatically populated with bricks.
+     * Creates the standard level, 4 rows of 8 bricks with one hit point each.
      *
      * @param canvasWidth the width of the game canvas
      * @param canvasHeight the height of the game canvas
      */
     public BrickGrid(int canvasWidth, int canvasHeight) {
-        final int brickWidth = 60;
-        final int brickHeight = 20;
-        final int spacingX = 10;
-        final int spacingY = 10;
-        final int startY = 50;
+        // 70x30 cells holding 60x12 bricks with 10 px spacing
+        this(10, 50, 4, 8, 70, 30, 60, 12, 1);
+    }
+
+    /**
+     * Creates a grid of bricks filling all of its cells.
+     * Each brick sits in the top-left corner of its cell.
+     *
+     * @param x the x-coordinate of the grid's top-left corner
+     * @param y the y-coordinate of the grid's top-left corner
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param cellWidth the distance between left edges of neighbouring bricks
+     * @param cellHeight the distance between top edges of neighbouring bricks
+     * @param width the width of a brick, at most cellWidth
+     * @param height the height of a brick, at most cellHeight
+     * @param startHitPoints the hits needed to destroy a brick, 1 to 3
+     */
+    public BrickGrid(int x, int y, int rows, int cols, int cellWidth, int cellHeight,
+                     int width, int height, int startHitPoints) {
+        this.x = x;
+        this.y = y;
+        this.rows = rows;
+        this.cols = cols;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        int count = rows * cols;
+
+        tiles = new TileMap(x, y, cols, rows, cellWidth, cellHeight, width, height);
+        for (int i = 0; i < HIT_POINT_COLORS.length; i++) {
+            tiles.changeTileColor(i + 1, HIT_POINT_COLORS[i]);
+        }
+        tiles.changeRowCaching(true);
+
+        // One index cell per tile map cell, so a brick never spans two cells
+        index = new UniformGrid(x, y, cellWidth, cellHeight, cols, rows, count);
+
+        brickX = new int[count];
+        brickY = new int[count];
+        brickWidth = new int[count];
+        brickHeight = new int[count];
+        hitPoints = new int[count];
+        alive = new BitSet(count);
+        polygons = new ConvexPolygons();
+        brickPolygon = new int[count];
+        brickShapes = null;
+
+        for (int id = 0; id < count; id++) {
+            int row = id / cols;
+            int col = id % cols;
+            brickX[id] = x + col * cellWidth;
+            brickY[id] = y + row * cellHeight;
+            brickWidth[id] = width;
+            brickHeight[id] = height;
+            hitPoints[id] = startHitPoints;
+            brickPolygon[id] = NO_POLYGON;
+            tiles.changeTile(col, row, startHitPoints);
+            index.insert(id, brickX[id], brickY[id], width, height);
+        }
+        alive.set(0, count);
+
+        tiles.makeVisible();
+
+        visibleBrickCount = count;
+    }
+
+    /**
+     * Creates a stress level of 50 000 tiny bricks covering the upper part of the canvas.
+     *
+     * @param canvasWidth the width of the game canvas
+     * @return the stress level
+     */
+    public static BrickGrid createStressLevel(int canvasWidth) {
+        final int cols = 250;
+        final int rows = 200;
+        final int cellWidth = 3;
+        final int cellHeight = 2;
+        return new BrickGrid((canvasWidth - cols * cellWidth) / 2, 50, rows, cols,
+            cellWidth, cellHeight, cellWidth, cellHeight, 1);
+    }
+
+    /**
+     * Creates a level of slanted bricks, 5 rows of 8 with two hit points each.
+     * Neighbouring rows lean in opposite directions and each row forms a shallow V,
+     * the middle row is made of diamonds.
+     *
+     * @param canvasWidth the width of the game canvas
+     * @return the slanted level
+     */
+    public static BrickGrid createTiltedLevel(int canvasWidth) {
+        final int cols = 8;
+        final int rows = 5;
+        final int cellWidth = 70;
+        final int cellHeight = 40;
+        BrickGrid grid = new BrickGrid((canvasWidth - cols * cellWidth) / 2, 40, rows, cols,
+            cellWidth, cellHeight, 60, 12, 2);
+
+        for (int id = 0; id < grid.getBrickCount(); id++) {
+            int row = id / cols;
+            int col = id % cols;
+            if (row == 2) {
+                int left = grid.getX() + col * cellWidth + 5;
+                int top = grid.getY() + row * cellHeight + 5;
+                grid.changeBrickShape(id,
+                    new int[] {left, left + 30, left + 60, left + 30},
+                    new int[] {top + 15, top, top + 15, top + 30});
+            } else {
+                // Neighbouring rows lean in opposite directions, the halves of a row mirror each other
+                grid.rotateBrick(id, (row % 2 == 0) == (col < cols / 2) ? 15 : -15);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Gives a brick the shape of a convex polygon, typically while the level is created.
+     * The brick is then drawn by a polygon shape instead of its tile, and balls bounce off its edges.
+     * The polygon must stay inside the brick's cell, so it is still found by the cell searches.
+     *
+     * @param id the id of the brick
+     * @param xPoints the x-coordinates of the polygon's vertices
+     * @param yPoints the y-coordinates of the polygon's vertices
+     * @throws IllegalArgumentException if the polygon is not convex, crosses itself or leaves the brick's cell
+     */
+    public void changeBrickShape(int id, int[] xPoints, int[] yPoints) {
+        if (yPoints.length != xPoints.length) {
+            throw new IllegalArgumentException("A polygon needs as many y-coordinates as x-coordinates");
+        }
+        int cellX = x + id % cols * cellWidth;
+        int cellY = y + id / cols * cellHeight;
+        for (int i = 0; i < xPoints.length; i++) {
+            if (xPoints[i] < cellX || xPoints[i] > cellX + cellWidth ||
+                yPoints[i] < cellY || yPoints[i] > cellY + cellHeight) {
+                throw new IllegalArgumentException("A brick must stay inside its cell");
+            }
+        }
+        // A brick shaped again keeps its polygon, so reshaping does not fill the store
+        int polygon = brickPolygon[id];
+        if (polygon == NO_POLYGON) {
+            polygon = polygons.add(xPoints, yPoints);
+        } else {
+            polygons.replace(polygon, xPoints, yPoints);
+        }
 
-        bricks = new Brick[rows][cols];
+        // The bounding box of the polygon takes the place of the rectangle in the index
+        if (alive.get(id)) {
+            index.remove(id, brickX[id], brickY[id], brickWidth[id], brickHeight[id]);
+        }
+        brickPolygon[id] = polygon;
+        brickX[id] = FixedPoint.round(polygons.getMinX(polygon));
+        brickY[id] = FixedPoint.round(polygons.getMinY(polygon));
+        brickWidth[id] = FixedPoint.round(polygons.getMaxX(polygon)) - brickX[id];
+        brickHeight[id] = FixedPoint.round(polygons.getMaxY(polygon)) - brickY[id];
+        if (alive.get(id)) {
+            index.insert(id, brickX[id], brickY[id], brickWidth[id], brickHeight[id]);
+        }
 
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                int x = col * (brickWidth + spacingX) + spacingX;
-                int y = startY + row * (brickHeight + spacingY);
+        tiles.clearTile(id % cols, id / cols);
+        if (brickShapes == null) {
+            brickShapes = new Polygon[getBrickCount()];
+        }
+        if (brickShapes[id] != null) {
+            brickShapes[id].makeInvisible();
+        }
+        brickShapes[id] = new Polygon(0, 0, xPoints, yPoints);
+        if (alive.get(id)) {
+            brickShapes[id].changeColor(HIT_POINT_COLORS[hitPoints[id] - 1]);
+            brickShapes[id].makeVisible();
+        }
+    }
 
-                bricks[row][col] = new Brick(x, y);
-                bricks[row][col].makeVisible();
+    /**
+     * Turns a brick around the center of its cell. The brick keeps its size and is centered in the cell,
+     * so a turned brick must have room to spare in its cell.
+     *
+     * @param id the id of the brick
+     * @param angle the angle in degrees, clockwise
+     * @throws IllegalArgumentException if the brick is already a polygon or the turned brick does not fit its cell
+     */
+    public void rotateBrick(int id, double angle) {
+        if (brickPolygon[id] != NO_POLYGON) {
+            throw new IllegalArgumentException("Only a rectangular brick can be turned");
+        }
+        double centerX = x + id % cols * cellWidth + cellWidth / 2.0;
+        double centerY = y + id / cols * cellHeight + cellHeight / 2.0;
+        double halfWidth = brickWidth[id] / 2.0;
+        double halfHeight = brickHeight[id] / 2.0;
+
+        double radians = Math.toRadians(angle);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        int[] xPoints = new int[4];
+        int[] yPoints = new int[4];
+        for (int corner = 0; corner < 4; corner++) {
+            double cornerX = corner == 0 || corner == 3 ? -halfWidth : halfWidth;
+            double cornerY = corner < 2 ? -halfHeight : halfHeight;
+            xPoints[corner] = (int) Math.round(centerX + cornerX * cos - cornerY * sin);
+            yPoints[corner] = (int) Math.round(centerY + cornerX * sin + cornerY * cos);
+        }
+        changeBrickShape(id, xPoints, yPoints);
+    }
+
+    /**
+     * Hits a brick, taking one of its hit points.
+     * A brick without hit points left is destroyed and the visible brick count is decremented.
+     *
+     * @param id the id of the brick
+     * @return true if the brick was destroyed by the hit
+     */
+    public boolean hitBrick(int id) {
+        if (!alive.get(id)) {
+            return false;
+        }
+
+        hitPoints[id]--;
+        if (hitPoints[id] > 0) {
+            if (brickPolygon[id] == NO_POLYGON) {
+                tiles.changeTile(id % cols, id / cols, hitPoints[id]);
+            } else {
+                brickShapes[id].changeColor(HIT_POINT_COLORS[hitPoints[id] - 1]);
             }
+            return false;
+        }
+
+        alive.clear(id);
+        if (brickPolygon[id] == NO_POLYGON) {
+            tiles.clearTile(id % cols, id / cols);
+        } else {
+            brickShapes[id].makeInvisible();
         }
+        index.remove(id, brickX[id], brickY[id], brickWidth[id], brickHeight[id]);
+        visibleBrickCount--;
+        return true;
+    }
 
-        visibleBrickCount = rows * cols;
+    /**
+     * Removes the whole grid from the canvas.
+     */
+    public void makeInvisible() {
+        tiles.makeInvisible();
+        if (brickShapes != null) {
+            for (Polygon shape : brickShapes) {
+                if (shape != null) {
+                    shape.makeInvisible();
+                }
+            }
+        }
     }
 
     /**
-     * Destroys the brick at the specified row and column.
-     * Decrements the visible brick count if the brick was visible.
+     * Tests a moving circle against a brick, typically the ball against a brick found near its path.
+     * Rectangular bricks are tested as rectangles, the others as their convex polygons.
+     * Works like Collision.sweptCircleRect, everything in 16.16 fixed point.
      *
-     * @param row the row index of the brick to destroy
-     * @param col the column index of the brick to destroy
+     * @param id the id of the brick
+     * @param fromX the x-coordinate of the circle's center at the start of the path
+     * @param fromY the y-coordinate of the circle's center at the start of the path
+     * @param toX the x-coordinate of the circle's center at the end of the path
+     * @param toY the y-coordinate of the circle's center at the end of the path
+     * @param radius the radius of the circle
+     * @param bestTime only contacts earlier than this time are reported
+     * @param hit receives the collision, left untouched when there is none
+     * @return true if the circle hits the brick earlier than bestTime
      */
-    public void destroyBrick(int row, int col) {
-        if (bricks[row][col].isVisible()) {
-            bricks[row][col].destroy();
-            visibleBrickCount--;
+    public boolean sweptHitBrick(int id, int fromX, int fromY, int toX, int toY, int radius,
+                                 double bestTime, Collision.SweptHit hit) {
+        if (brickPolygon[id] != NO_POLYGON) {
+            return Collision.sweptCirclePolygon(fromX, fromY, toX, toY, radius,
+                polygons, brickPolygon[id], bestTime, hit);
         }
+        return Collision.sweptCircleRect(fromX, fromY, toX, toY, radius,
+            FixedPoint.fromInt(brickX[id]), FixedPoint.fromInt(brickY[id]),
+            FixedPoint.fromInt(brickWidth[id]), FixedPoint.fromInt(brickHeight[id]),
+            bestTime, hit);
     }
 
     /**
-     * Gets the brick at the specified row and column.
+     * Finds the live bricks that may touch an area, typically the area swept by the ball during a tick.
+     * Only the index cells overlapping the area are visited.
      *
-     * @param row the row index of the brick
-     * @param col the column index of the brick
-     * @return the brick at the specified position
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @return the number of bricks found, read their ids with getFoundBrick
      */
-    public Brick getBrick(int row, int col) {
-        return bricks[row][col];
+    public int findBricksNear(int minX, int minY, int maxX, int maxY) {
+        return index.query(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Finds the live bricks that may touch an area like findBricksNear, keeping the results in
+     * a query of the caller, so several threads can search the grid at once.
+     * The grid must not change while they do.
+     *
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @param query receives the ids of the bricks found, created by createQuery
+     * @return the number of bricks found, read their ids with the query's getFound
+     */
+    public int findBricksNear(int minX, int minY, int maxX, int maxY, UniformGrid.Query query) {
+        return index.query(minX, minY, maxX, maxY, query);
+    }
+
+    /**
+     * Creates a query for searching the grid with findBricksNear from one thread.
+     *
+     * @return an empty query
+     */
+    public UniformGrid.Query createQuery() {
+        return index.createQuery();
+    }
+
+    /**
+     * Gets the id of a brick found by the last findBricksNear call.
+     *
+     * @param index the index of the result
+     * @return the id of the brick
+     */
+    public int getFoundBrick(int index) {
+        return this.index.getFound(index);
+    }
+
+    /**
+     * Checks whether a brick is still in the game.
+     *
+     * @param id the id of the brick
+     * @return true if the brick has hit points left
+     */
+    public boolean isAlive(int id) {
+        return alive.get(id);
+    }
+
+    /**
+     * Gets the x-coordinate of a brick's top-left corner.
+     * For a polygonal brick it is the corner of the polygon's bounding box.
+     *
+     * @param id the id of the brick
+     * @return the x-coordinate
+     */
+    public int getBrickX(int id) {
+        return brickX[id];
+    }
+
+    /**
+     * Gets the y-coordinate of a brick's top-left corner.
+     * For a polygonal brick it is the corner of the polygon's bounding box.
+     *
+     * @param id the id of the brick
+     * @return the y-coordinate
+     */
+    public int getBrickY(int id) {
+        return brickY[id];
+    }
+
+    /**
+     * Gets the width of a brick.
+     *
+     * @param id the id of the brick
+     * @return the width in pixels
+     */
+    public int getBrickWidth(int id) {
+        return brickWidth[id];
+    }
+
+    /**
+     * Gets the height of a brick.
+     *
+     * @param id the id of the brick
+     * @return the height in pixels
+     */
+    public int getBrickHeight(int id) {
+        return brickHeight[id];
+    }
+
+    /**
+     * Gets the hit points a brick has left.
+     *
+     * @param id the id of the brick
+     * @return the hit points, 0 for a destroyed brick
+     */
+    public int getHitPoints(int id) {
+        return hitPoints[id];
     }
 
     /**
@@ -76,12 +448,50 @@ public class BrickGrid {
     }
 
     /**
-     * Gets the 2D array of bricks.
+     * Gets the number of bricks the grid was created with.
+     *
+     * @return the count of all bricks, ids are from 0 to this count - 1
+     */
+    public int getBrickCount() {
+        return rows * cols;
+    }
+
+    /**
+     * Gets the x-coordinate of the grid's top-left corner.
+     * The brick at a row and column sits in the top-left corner of the cell
+     * at x + column * cellWidth, y + row * cellHeight.
+     *
+     * @return the x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinate of the grid's top-left corner.
+     *
+     * @return the y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the distance between left edges of neighbouring bricks.
+     *
+     * @return the width of a cell in pixels
+     */
+    public int getCellWidth() {
+        return cellWidth;
+    }
+
+    /**
+     * Gets the distance between top edges of neighbouring bricks.
      *
-     * @return the brick array
+     * @return the height of a cell in pixels
      */
-    public Brick[][] getBrickArray() {
-        return bricks;
+    public int getCellHeight() {
+        return cellHeight;
     }
 
     /**
@@ -26,11 +26,28 @@ public class Collision {
             this.edge = edge;
         }
 
+        // Results are immutable, so every miss can share one instance
+        private static final SweptCollisionResult NO_COLLISION =
+            new SweptCollisionResult(false, 1.0, 0, 0, CollisionEdge.NONE);
+
         public static SweptCollisionResult noCollision() {
-            return new SweptCollisionResult(false, 1.0, 0, 0, CollisionEdge.NONE);
+            return NO_COLLISION;
         }
     }
 
+    /**
+     * Mutable result of a swept collision test.
+     * The caller owns it and reuses it for every test, so testing does not allocate.
+     */
+    public static class SweptHit {
+        public double time;      // 0.0 to 1.0 along the path
+        public int x;            // Exact collision point
+        public int y;
+        public CollisionEdge edge = CollisionEdge.NONE;
+        public double normalX;   // Outward unit normal of the surface hit, 0 with NONE
+        public double normalY;
+    }
+
     /**
      * Represents which edge of a rectangle was hit during collision.
      */
@@ -79,11 +96,30 @@ public class Collision {
         int closestY = Math.max(rectY, Math.min(circleY, rectY + rectH));
 
         // Calculate distance between circle center and closest point
-        int distX = circleX - closestX;
-        int distY = circleY - closestY;
+        long distX = circleX - closestX;
+        long distY = circleY - closestY;
 
-        // Check if distance is less than radius (collision detected)
-        return (distX * distX + distY * distY) < (radius * radius);
+        // Check if distance is less than radius (collision detected), squares of fixed-point distances need longs
+        return (distX * distX + distY * distY) < ((long) radius * radius);
+    }
+
+    /**
+     * Checks if two circles collide.
+     * Works with any unit, squares of the distances are computed in longs.
+     *
+     * @param x1 the x-coordinate of the first circle's center
+     * @param y1 the y-coordinate of the first circle's center
+     * @param radius1 the radius of the first circle
+     * @param x2 the x-coordinate of the second circle's center
+     * @param y2 the y-coordinate of the second circle's center
+     * @param radius2 the radius of the second circle
+     * @return true if the circles overlap, false otherwise
+     */
+    public static boolean circlesCollide(int x1, int y1, int radius1, int x2, int y2, int radius2) {
+        long distX = (long) x2 - x1;
+        long distY = (long) y2 - y1;
+        long radii = (long) radius1 + radius2;
+        return distX * distX + distY * distY < radii * radii;
     }
 
     /**
@@ -156,15 +192,53 @@ public class Collision {
      */
     public static SweptCollisionResult sweptCircleRect(int prevX, int prevY, int currX, int currY, int radius,
                                                        int rectX, int rectY, int rectW, int rectH) {
+        SweptHit hit = new SweptHit();
+        if (!sweptCircleRect(prevX, prevY, currX, currY, radius, rectX, rectY, rectW, rectH, Double.MAX_VALUE, hit)) {
+            return SweptCollisionResult.noCollision();
+        }
+        return new SweptCollisionResult(true, hit.time, hit.x, hit.y, hit.edge);
+    }
+
+    /**
+     * Performs swept collision detection between a moving circle and a rectangle without allocating.
+     * Works like the variant returning SweptCollisionResult, but writes the result into a caller-owned hit.
+     * Contacts at or after bestTime are rejected, and as early as possible, so an earliest-hit search
+     * passes the time of its best hit so far and skips most of the work for bricks hit later.
+     * All coordinates and sizes only need to share a unit, the game passes 16.16 fixed point
+     * so the collision point keeps fractions of a pixel.
+     *
+     * @param prevX the previous x-coordinate of the circle's center
+     * @param prevY the previous y-coordinate of the circle's center
+     * @param currX the current x-coordinate of the circle's center
+     * @param currY the current y-coordinate of the circle's center
+     * @param radius the radius of the circle
+     * @param rectX the x-coordinate of the rectangle's top-left corner
+     * @param rectY the y-coordinate of the rectangle's top-left corner
+     * @param rectW the width of the rectangle
+     * @param rectH the height of the rectangle
+     * @param bestTime only contacts earlier than this time are reported, Double.MAX_VALUE accepts any
+     * @param hit receives the collision, left untouched when there is none
+     * @return true if the circle hits the rectangle earlier than bestTime
+     */
+    public static boolean sweptCircleRect(int prevX, int prevY, int currX, int currY, int radius,
+                                          int rectX, int rectY, int rectW, int rectH,
+                                          double bestTime, SweptHit hit) {
         // Calculate movement delta
         double deltaX = currX - prevX;
         double deltaY = currY - prevY;
 
         // If no movement, use standard collision detection
         if (deltaX == 0 && deltaY == 0) {
-            boolean collides = circleRectsCollide(currX, currY, radius, rectX, rectY, rectW, rectH);
-            return collides ? new SweptCollisionResult(true, 0.0, currX, currY, CollisionEdge.NONE) :
-                            SweptCollisionResult.noCollision();
+            if (bestTime <= 0 || !circleRectsCollide(currX, currY, radius, rectX, rectY, rectW, rectH)) {
+                return false;
+            }
+            hit.time = 0.0;
+            hit.x = currX;
+            hit.y = currY;
+            hit.edge = CollisionEdge.NONE;
+            hit.normalX = 0.0;
+            hit.normalY = 0.0;
+            return true;
         }
 
         // Expand the rectangle by the circle's radius (Minkowski sum)
@@ -173,9 +247,6 @@ public class Collision {
         int expandedW = rectW + radius * 2;
         int expandedH = rectH + radius * 2;
 
-        // Test ray (line segment) against expanded rectangle
-        // We need to find the time of intersection for each edge
-
         double entryTimeX, exitTimeX;
         double entryTimeY, exitTimeY;
 
@@ -189,11 +260,19 @@ public class Collision {
             entryTimeX = (expandedX + expandedW - prevX) / deltaX;
             exitTimeX = (expandedX - prevX) / deltaX;
         } else {
-            // No horizontal movement
+            // No horizontal movement, the circle must already be within the horizontal span
+            if (prevX < expandedX || prevX > expandedX + expandedW) {
+                return false;
+            }
             entryTimeX = Double.NEGATIVE_INFINITY;
             exitTimeX = Double.POSITIVE_INFINITY;
         }
 
+        // The entry time is at least the horizontal one, so a later or missed horizontal entry rejects early
+        if (entryTimeX > 1 || entryTimeX >= bestTime || exitTimeX <= 0) {
+            return false;
+        }
+
         // Calculate intersection times with horizontal edges (top and bottom)
         if (deltaY > 0) {
             // Moving down: check top edge entry, bottom edge exit
@@ -204,7 +283,10 @@ public class Collision {
             entryTimeY = (expandedY + expandedH - prevY) / deltaY;
             exitTimeY = (expandedY - prevY) / deltaY;
         } else {
-            // No vertical movement
+            // No vertical movement, the circle must already be within the vertical span
+            if (prevY < expandedY || prevY > expandedY + expandedH) {
+                return false;
+            }
             entryTimeY = Double.NEGATIVE_INFINITY;
             exitTimeY = Double.POSITIVE_INFINITY;
         }
@@ -216,37 +298,137 @@ public class Collision {
         // Check if there's a collision
         // No collision if:
         // - Entry time is after exit time (never overlapped)
-        // - Collision is completely behind us (exitTime < 0)
+        // - Collision is completely behind us, or the circle only touches the rectangle
+        //   at the start and moves away from it (exitTime <= 0)
         // - Collision is completely ahead of our movement (entryTime > 1)
-        if (entryTime > exitTime || exitTime < 0 || entryTime > 1) {
-            return SweptCollisionResult.noCollision();
+        // - An earlier collision is already known
+        if (entryTime > exitTime || exitTime <= 0 || entryTime > 1 || entryTime >= bestTime) {
+            return false;
         }
 
         // Clamp entry time to [0, 1] range
         entryTime = Math.max(0, entryTime);
+        if (entryTime >= bestTime) {
+            return false;
+        }
 
         // Determine which edge was hit
-        CollisionEdge edge;
         if (entryTimeX > entryTimeY) {
             // Hit vertical edge (left or right)
-            if (deltaX > 0) {
-                edge = CollisionEdge.LEFT; // Hit left edge of rectangle
-            } else {
-                edge = CollisionEdge.RIGHT; // Hit right edge of rectangle
-            }
+            hit.edge = deltaX > 0 ? CollisionEdge.LEFT : CollisionEdge.RIGHT;
         } else {
             // Hit horizontal edge (top or bottom)
-            if (deltaY > 0) {
-                edge = CollisionEdge.TOP; // Hit top edge of rectangle
+            hit.edge = deltaY > 0 ? CollisionEdge.TOP : CollisionEdge.BOTTOM;
+        }
+        hit.normalX = hit.edge == CollisionEdge.LEFT ? -1.0 : hit.edge == CollisionEdge.RIGHT ? 1.0 : 0.0;
+        hit.normalY = hit.edge == CollisionEdge.TOP ? -1.0 : hit.edge == CollisionEdge.BOTTOM ? 1.0 : 0.0;
+
+        // Calculate exact collision point
+        hit.time = entryTime;
+        hit.x = (int)(prevX + deltaX * entryTime);
+        hit.y = (int)(prevY + deltaY * entryTime);
+        return true;
+    }
+
+    /**
+     * Performs swept collision detection between a moving circle and a convex polygon.
+     *
+     * @param prevX the previous x-coordinate of the circle's center
+     * @param prevY the previous y-coordinate of the circle's center
+     * @param currX the current x-coordinate of the circle's center
+     * @param currY the current y-coordinate of the circle's center
+     * @param radius the radius of the circle
+     * @param polygons the store holding the polygon
+     * @param polygon the index of the polygon
+     * @return SweptCollisionResult containing collision information
+     */
+    public static SweptCollisionResult sweptCirclePolygon(int prevX, int prevY, int currX, int currY, int radius,
+                                                          ConvexPolygons polygons, int polygon) {
+        SweptHit hit = new SweptHit();
+        if (!sweptCirclePolygon(prevX, prevY, currX, currY, radius, polygons, polygon, Double.MAX_VALUE, hit)) {
+            return SweptCollisionResult.noCollision();
+        }
+        return new SweptCollisionResult(true, hit.time, hit.x, hit.y, hit.edge);
+    }
+
+    /**
+     * Performs swept collision detection between a moving circle and a convex polygon without allocating.
+     * The edge normals are the separating axes: the circle touches the polygon while its center is
+     * within the radius of every edge, inside the polygon with each edge pushed out by the radius.
+     * The path of the center is clipped by each of these half-planes in turn, the latest entry is
+     * the contact and a path leaving one half-plane before entering another misses.
+     * Pushed-out edges keep the corners sharp instead of rounding them, the sides of the bounding box
+     * that come first in the store cut the sharpest of them off.
+     * The edge in the hit is the side the entry normal points to most, the normal itself is in the hit.
+     *
+     * @param prevX the previous x-coordinate of the circle's center
+     * @param prevY the previous y-coordinate of the circle's center
+     * @param currX the current x-coordinate of the circle's center
+     * @param currY the current y-coordinate of the circle's center
+     * @param radius the radius of the circle
+     * @param polygons the store holding the polygon, in the same unit as the coordinates
+     * @param polygon the index of the polygon
+     * @param bestTime only contacts earlier than this time are reported, Double.MAX_VALUE accepts any
+     * @param hit receives the collision, left untouched when there is none
+     * @return true if the circle hits the polygon earlier than bestTime
+     */
+    public static boolean sweptCirclePolygon(int prevX, int prevY, int currX, int currY, int radius,
+                                             ConvexPolygons polygons, int polygon,
+                                             double bestTime, SweptHit hit) {
+        double deltaX = currX - prevX;
+        double deltaY = currY - prevY;
+        double entryTime = Double.NEGATIVE_INFINITY;
+        double exitTime = Double.POSITIVE_INFINITY;
+        double entryNormalX = 0.0;
+        double entryNormalY = 0.0;
+
+        int firstEdge = polygons.getFirstEdge(polygon);
+        int lastEdge = firstEdge + polygons.getEdgeCount(polygon);
+        for (int edge = firstEdge; edge < lastEdge; edge++) {
+            double normalX = polygons.getNormalX(edge);
+            double normalY = polygons.getNormalY(edge);
+            double distance = normalX * prevX + normalY * prevY - polygons.getEdgeOffset(edge) - radius;
+            double approach = normalX * deltaX + normalY * deltaY;
+            if (approach == 0) {
+                if (distance > 0) {
+                    return false;
+                }
+                continue;
+            }
+            double time = -distance / approach;
+            if (approach < 0) {
+                if (time > entryTime) {
+                    entryTime = time;
+                    entryNormalX = normalX;
+                    entryNormalY = normalY;
+                }
             } else {
-                edge = CollisionEdge.BOTTOM; // Hit bottom edge of rectangle
+                exitTime = Math.min(exitTime, time);
+            }
+            if (entryTime > exitTime || exitTime <= 0 || entryTime > 1 || entryTime >= bestTime) {
+                return false;
             }
         }
 
-        // Calculate exact collision point
-        int collisionX = (int)(prevX + deltaX * entryTime);
-        int collisionY = (int)(prevY + deltaY * entryTime);
+        // A circle already touching the polygon at the start collides right away
+        entryTime = Math.max(0, entryTime);
+        if (entryTime >= bestTime) {
+            return false;
+        }
 
-        return new SweptCollisionResult(true, entryTime, collisionX, collisionY, edge);
+        if (entryNormalX == 0 && entryNormalY == 0) {
+            // Not moving, or moving without entering any plane, there is no side to bounce off
+            hit.edge = CollisionEdge.NONE;
+        } else if (Math.abs(entryNormalX) > Math.abs(entryNormalY)) {
+            hit.edge = entryNormalX < 0 ? CollisionEdge.LEFT : CollisionEdge.RIGHT;
+        } else {
+            hit.edge = entryNormalY < 0 ? CollisionEdge.TOP : CollisionEdge.BOTTOM;
+        }
+        hit.normalX = entryNormalX;
+        hit.normalY = entryNormalY;
+        hit.time = entryTime;
+        hit.x = (int)(prevX + deltaX * entryTime);
+        hit.y = (int)(prevY + deltaY * entryTime);
+        return true;
     }
 }
@@ -0,0 +1,306 @@
+import java.util.Arrays;
+
+/**
+ * A store of convex polygons prepared for swept collision tests.
+ * Everything a test needs is computed once when a polygon is added, typically while a level loads:
+ * the outward unit normal of every edge, how far along its normal the edge lies,
+ * and the bounding box of the polygon. A test then only takes two dot products per edge.
+ * Edges of all polygons are kept in flat arrays, the edges of a polygon follow each other.
+ * A polygon can be replaced, reusing its index and, when the new one has no more vertices, its edges.
+ * Coordinates are 16.16 fixed point like the rest of the physics.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public class ConvexPolygons {
+    // Fields
+    private int polygonCount;
+    private int[] firstEdge;
+    private int[] edgeCount;
+    private int[] edgeCapacity;
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+    private int totalEdges;
+    private double[] normalX;
+    private double[] normalY;
+    private double[] edgeOffset;
+
+    /**
+     * Creates an empty store.
+     */
+    public ConvexPolygons() {
+        polygonCount = 0;
+        firstEdge = new int[8];
+        edgeCount = new int[8];
+        edgeCapacity = new int[8];
+        minX = new int[8];
+        minY = new int[8];
+        maxX = new int[8];
+        maxY = new int[8];
+        totalEdges = 0;
+        normalX = new double[32];
+        normalY = new double[32];
+        edgeOffset = new double[32];
+    }
+
+    /**
+     * Adds a convex polygon. The vertices may go around it either way.
+     *
+     * @param xPoints the x-coordinates of the vertices in pixels
+     * @param yPoints the y-coordinates of the vertices in pixels
+     * @return the index of the polygon
+     * @throws IllegalArgumentException if there are fewer than 3 vertices, the arrays differ in length,
+     *                                  or the polygon is not convex or crosses itself
+     */
+    public int add(int[] xPoints, int[] yPoints) {
+        long area = checkConvex(xPoints, yPoints);
+
+        ensureCapacity(xPoints.length + 4);
+        int polygon = polygonCount++;
+        reserveEdges(polygon, xPoints.length + 4);
+        fill(polygon, xPoints, yPoints, area);
+        return polygon;
+    }
+
+    /**
+     * Replaces a polygon by another convex polygon, keeping its index.
+     * The new edges take the place of the old ones when there are not more of them,
+     * a polygon with more vertices than the one it replaces gets new edges and the old ones stay unused.
+     *
+     * @param polygon the index of the polygon to replace
+     * @param xPoints the x-coordinates of the new vertices in pixels
+     * @param yPoints the y-coordinates of the new vertices in pixels
+     * @throws IllegalArgumentException if there are fewer than 3 vertices, the arrays differ in length,
+     *                                  or the polygon is not convex or crosses itself
+     */
+    public void replace(int polygon, int[] xPoints, int[] yPoints) {
+        long area = checkConvex(xPoints, yPoints);
+
+        if (xPoints.length + 4 > edgeCapacity[polygon]) {
+            ensureCapacity(xPoints.length + 4);
+            reserveEdges(polygon, xPoints.length + 4);
+        }
+        fill(polygon, xPoints, yPoints, area);
+    }
+
+    /**
+     * Gets the number of polygons in the store.
+     *
+     * @return the number of polygons, their indices are from 0 to this count - 1
+     */
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    /**
+     * Gets the first edge of a polygon.
+     * The first four edges of a polygon are the left, right, top and bottom sides of its bounding box,
+     * the polygon's own edges follow them.
+     *
+     * @param polygon the index of the polygon
+     * @return the index of the edge, the other edges of the polygon follow it
+     */
+    public int getFirstEdge(int polygon) {
+        return firstEdge[polygon];
+    }
+
+    /**
+     * Gets the number of edges of a polygon.
+     *
+     * @param polygon the index of the polygon
+     * @return the number of edges, including the four sides of the bounding box
+     */
+    public int getEdgeCount(int polygon) {
+        return edgeCount[polygon];
+    }
+
+    /**
+     * Gets the horizontal part of an edge's outward unit normal.
+     *
+     * @param edge the index of the edge
+     * @return the horizontal part, -1.0 to 1.0
+     */
+    public double getNormalX(int edge) {
+        return normalX[edge];
+    }
+
+    /**
+     * Gets the vertical part of an edge's outward unit normal.
+     *
+     * @param edge the index of the edge
+     * @return the vertical part, -1.0 to 1.0
+     */
+    public double getNormalY(int edge) {
+        return normalY[edge];
+    }
+
+    /**
+     * Gets how far along its normal an edge lies, the dot product of the normal with any point of the edge.
+     * A point is inside the polygon when its dot product with every normal is at most the edge's offset.
+     *
+     * @param edge the index of the edge
+     * @return the offset, 16.16 fixed point
+     */
+    public double getEdgeOffset(int edge) {
+        return edgeOffset[edge];
+    }
+
+    /**
+     * Gets the left edge of a polygon's bounding box.
+     *
+     * @param polygon the index of the polygon
+     * @return the x-coordinate, 16.16 fixed point
+     */
+    public int getMinX(int polygon) {
+        return minX[polygon];
+    }
+
+    /**
+     * Gets the top edge of a polygon's bounding box.
+     *
+     * @param polygon the index of the polygon
+     * @return the y-coordinate, 16.16 fixed point
+     */
+    public int getMinY(int polygon) {
+        return minY[polygon];
+    }
+
+    /**
+     * Gets the right edge of a polygon's bounding box.
+     *
+     * @param polygon the index of the polygon
+     * @return the x-coordinate, 16.16 fixed point
+     */
+    public int getMaxX(int polygon) {
+        return maxX[polygon];
+    }
+
+    /**
+     * Gets the bottom edge of a polygon's bounding box.
+     *
+     * @param polygon the index of the polygon
+     * @return the y-coordinate, 16.16 fixed point
+     */
+    public int getMaxY(int polygon) {
+        return maxY[polygon];
+    }
+
+    /**
+     * Checks that the vertices go around a convex polygon once.
+     *
+     * @return twice the signed area of the polygon, its sign tells which way the vertices go
+     */
+    private long checkConvex(int[] xPoints, int[] yPoints) {
+        int count = xPoints.length;
+        if (yPoints.length != count) {
+            throw new IllegalArgumentException("A polygon needs as many y-coordinates as x-coordinates");
+        }
+        if (count < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 vertices");
+        }
+
+        // The sign of the area tells which way the vertices go, every turn must have the same sign
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            area += (long) xPoints[i] * yPoints[next] - (long) xPoints[next] * yPoints[i];
+        }
+        if (area == 0) {
+            throw new IllegalArgumentException("A polygon must not be flat");
+        }
+        double totalTurn = 0;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            int after = (i + 2) % count;
+            long edgeX = xPoints[next] - xPoints[i];
+            long edgeY = yPoints[next] - yPoints[i];
+            long nextEdgeX = xPoints[after] - xPoints[next];
+            long nextEdgeY = yPoints[after] - yPoints[next];
+            long turn = edgeX * nextEdgeY - edgeY * nextEdgeX;
+            if (turn != 0 && (turn > 0) != (area > 0)) {
+                throw new IllegalArgumentException("A polygon must be convex");
+            }
+            totalTurn += Math.atan2(turn, edgeX * nextEdgeX + edgeY * nextEdgeY);
+        }
+
+        // Turning the same way at every vertex, a star goes around more than once, a whole number of turns
+        if (Math.abs(totalTurn) > 3 * Math.PI) {
+            throw new IllegalArgumentException("A polygon must not cross itself");
+        }
+        return area;
+    }
+
+    private void fill(int polygon, int[] xPoints, int[] yPoints, long area) {
+        int count = xPoints.length;
+        edgeCount[polygon] = 0;
+        minX[polygon] = Integer.MAX_VALUE;
+        minY[polygon] = Integer.MAX_VALUE;
+        maxX[polygon] = Integer.MIN_VALUE;
+        maxY[polygon] = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX[polygon] = Math.min(minX[polygon], FixedPoint.fromInt(xPoints[i]));
+            minY[polygon] = Math.min(minY[polygon], FixedPoint.fromInt(yPoints[i]));
+            maxX[polygon] = Math.max(maxX[polygon], FixedPoint.fromInt(xPoints[i]));
+            maxY[polygon] = Math.max(maxY[polygon], FixedPoint.fromInt(yPoints[i]));
+        }
+
+        // The sides of the bounding box come first, they reject most paths with the cheapest tests
+        // and keep a ball from touching a sharp corner long before it gets to it
+        addEdge(polygon, -1.0, 0.0, -(double) minX[polygon]);
+        addEdge(polygon, 1.0, 0.0, maxX[polygon]);
+        addEdge(polygon, 0.0, -1.0, -(double) minY[polygon]);
+        addEdge(polygon, 0.0, 1.0, maxY[polygon]);
+
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            double edgeX = xPoints[next] - xPoints[i];
+            double edgeY = yPoints[next] - yPoints[i];
+            double length = Math.hypot(edgeX, edgeY);
+            if (length == 0) {
+                // A repeated vertex has no edge to bounce off
+                continue;
+            }
+
+            // y grows downwards, so the outward normal of clockwise vertices is the edge turned left
+            double outwardX = (area > 0 ? edgeY : -edgeY) / length;
+            double outwardY = (area > 0 ? -edgeX : edgeX) / length;
+            addEdge(polygon, outwardX, outwardY,
+                outwardX * FixedPoint.fromInt(xPoints[i]) + outwardY * FixedPoint.fromInt(yPoints[i]));
+        }
+    }
+
+    private void addEdge(int polygon, double outwardX, double outwardY, double offset) {
+        int edge = firstEdge[polygon] + edgeCount[polygon];
+        normalX[edge] = outwardX;
+        normalY[edge] = outwardY;
+        edgeOffset[edge] = offset;
+        edgeCount[polygon]++;
+    }
+
+    private void reserveEdges(int polygon, int edges) {
+        firstEdge[polygon] = totalEdges;
+        edgeCapacity[polygon] = edges;
+        totalEdges += edges;
+    }
+
+    private void ensureCapacity(int newEdges) {
+        if (polygonCount == firstEdge.length) {
+            int newLength = polygonCount * 2;
+            firstEdge = Arrays.copyOf(firstEdge, newLength);
+            edgeCount = Arrays.copyOf(edgeCount, newLength);
+            edgeCapacity = Arrays.copyOf(edgeCapacity, newLength);
+            minX = Arrays.copyOf(minX, newLength);
+            minY = Arrays.copyOf(minY, newLength);
+            maxX = Arrays.copyOf(maxX, newLength);
+            maxY = Arrays.copyOf(maxY, newLength);
+        }
+        if (totalEdges + newEdges > normalX.length) {
+            int newLength = Math.max(totalEdges + newEdges, normalX.length * 2);
+            normalX = Arrays.copyOf(normalX, newLength);
+            normalY = Arrays.copyOf(normalY, newLength);
+            edgeOffset = Arrays.copyOf(edgeOffset, newLength);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Utility class for 16.16 fixed-point numbers used by the game physics.
+ * A fixed-point number is an int holding a value multiplied by 65536, so positions and velocities
+ * keep fractions of a pixel while all arithmetic stays exact and gives the same results on every run.
+ * Values up to about 32 000 pixels fit.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public class FixedPoint {
+    /**
+     * Number of fraction bits.
+     */
+    public static final int SHIFT = 16;
+
+    /**
+     * The value 1.0, one pixel.
+     */
+    public static final int ONE = 1 << SHIFT;
+
+    /**
+     * The value 0.5, half a pixel.
+     */
+    public static final int HALF = ONE >> 1;
+
+    /**
+     * Converts a whole number of pixels to fixed point.
+     *
+     * @param value the number of pixels
+     * @return the fixed-point value
+     */
+    public static int fromInt(int value) {
+        return value << SHIFT;
+    }
+
+    /**
+     * Converts a number to the nearest fixed-point value.
+     *
+     * @param value the number
+     * @return the fixed-point value
+     */
+    public static int fromDouble(double value) {
+        return (int) Math.round(value * ONE);
+    }
+
+    /**
+     * Rounds a fixed-point value to the nearest whole pixel, halves round up.
+     *
+     * @param value the fixed-point value
+     * @return the number of pixels
+     */
+    public static int round(int value) {
+        return (value + HALF) >> SHIFT;
+    }
+
+    /**
+     * Converts a fixed-point value to a number.
+     *
+     * @param value the fixed-point value
+     * @return the number
+     */
+    public static double toDouble(int value) {
+        return value / (double) ONE;
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Represents the levels the Arkanoid game can be played on.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public enum Level {
+    /**
+     * 4 rows of 8 bricks with one hit point each.
+     */
+    STANDARD,
+
+    /**
+     * 50 000 tiny bricks covering the upper part of the canvas.
+     */
+    STRESS,
+
+    /**
+     * 5 rows of slanted bricks and diamonds with two hit points each.
+     */
+    TILTED
+}
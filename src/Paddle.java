@@ -2,7 +2,7 @@ import fri.shapesge.Rectangle;
 
 /**
  * Represents the paddle in the Arkanoid game.
- * The paddle is controlled by the player using keyboard input to move left and right.
+ * The paddle is controlled by the player with the arrow keys or by following the mouse pointer.
  *
  * @author ArkanoidGame
  * @version 1.0
@@ -11,9 +11,12 @@ public class Paddle {
     // Fields
     private Rectangle shape;
     private final int speed = 8;
+    private final int pointerSpeed = 20;
     private final int width = 150;
     private final int height = 12;
     private int canvasWidth;
+    // Left edge in 16.16 fixed point, the shape shows it rounded to whole pixels
+    private int x;
 
     /**
      * Creates a new Paddle at the specified starting position.
@@ -23,10 +26,12 @@ public class Paddle {
      * @param canvasWidth the width of the game canvas (for boundary checking)
      */
     public Paddle(int startX, int startY, int canvasWidth) {
-        shape = new Rectangle(width, height);
+        shape = new Rectangle();
+        shape.changeSize(width, height);
         shape.changePosition(startX, startY);
         shape.changeColor("green");
         this.canvasWidth = canvasWidth;
+        x = FixedPoint.fromInt(startX);
     }
 
     /**
@@ -34,14 +39,7 @@ public class Paddle {
      * Prevents the paddle from moving past the left edge of the canvas.
      */
     public void moveLeft() {
-        int currentX = shape.getX();
-        if (currentX > 0) {
-            int newX = currentX - speed;
-            if (newX < 0) {
-                newX = 0;
-            }
-            shape.changePosition(newX, shape.getY());
-        }
+        moveTo(x - FixedPoint.fromInt(speed));
     }
 
     /**
@@ -49,23 +47,58 @@ public class Paddle {
      * Prevents the paddle from moving past the right edge of the canvas.
      */
     public void moveRight() {
-        int currentX = shape.getX();
-        if (currentX + width < canvasWidth) {
-            int newX = currentX + speed;
-            if (newX + width > canvasWidth) {
-                newX = canvasWidth - width;
-            }
-            shape.changePosition(newX, shape.getY());
+        moveTo(x + FixedPoint.fromInt(speed));
+    }
+
+    /**
+     * Moves the paddle by how long the arrow keys were held during the last tick.
+     * A key held for half of the tick moves the paddle by half of the speed amount.
+     * Fractions of a pixel are kept, so short taps still add up.
+     *
+     * @param leftHeld time the left key was held, in nanoseconds
+     * @param rightHeld time the right key was held, in nanoseconds
+     * @param tickLength length of a tick, in nanoseconds
+     */
+    public void moveByHeldTime(long leftHeld, long rightHeld, long tickLength) {
+        // a late tick must not turn into a jump
+        leftHeld = Math.min(leftHeld, tickLength);
+        rightHeld = Math.min(rightHeld, tickLength);
+        if (leftHeld == rightHeld) {
+            return;
         }
+
+        moveTo(x + (int) ((long) FixedPoint.fromInt(speed) * (rightHeld - leftHeld) / tickLength));
+    }
+
+    /**
+     * Moves the paddle so that its center follows the mouse pointer.
+     * The paddle moves at most by the pointer speed amount per tick, so a flick of the mouse
+     * cannot teleport it under the ball.
+     *
+     * @param pointerX the x-coordinate of the mouse pointer
+     */
+    public void followPointer(int pointerX) {
+        int targetX = FixedPoint.fromInt(pointerX) - FixedPoint.fromInt(width) / 2;
+        int maxDistance = FixedPoint.fromInt(pointerSpeed);
+        moveTo(x + Math.max(-maxDistance, Math.min(targetX - x, maxDistance)));
     }
 
     /**
-     * Gets the x-coordinate of the paddle's top-left corner.
+     * Gets the x-coordinate of the paddle's top-left corner, rounded to whole pixels.
      *
      * @return the x-coordinate
      */
     public int getX() {
-        return shape.getX();
+        return FixedPoint.round(x);
+    }
+
+    /**
+     * Gets the exact x-coordinate of the paddle's top-left corner.
+     *
+     * @return the x-coordinate in 16.16 fixed point
+     */
+    public int getFixedX() {
+        return x;
     }
 
     /**
@@ -108,4 +141,17 @@ public class Paddle {
     public void makeInvisible() {
         shape.makeInvisible();
     }
+
+    /**
+     * Moves the paddle to a position kept within the canvas.
+     * The shape moves only when the rounded position changes.
+     *
+     * @param newX the new x-coordinate of the top-left corner in 16.16 fixed point
+     */
+    private void moveTo(int newX) {
+        x = Math.max(0, Math.min(newX, FixedPoint.fromInt(canvasWidth - width)));
+        if (getX() != shape.getX()) {
+            shape.changePosition(getX(), shape.getY());
+        }
+    }
 }
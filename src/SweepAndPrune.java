@@ -0,0 +1,233 @@
+import java.util.Arrays;
+
+/**
+ * A sweep-and-prune broadphase for moving objects.
+ * The objects are kept sorted by the left or top edge of their bounding boxes, along the axis
+ * they are spread out more on. Objects move only a little between ticks, so the order of the last
+ * tick is almost sorted and insertion sort restores it in about linear time.
+ * The axis changes only when the other one is spread out twice as much, and then the objects are
+ * sorted from scratch, so an axis flipping between ticks never makes the insertion sort quadratic.
+ * Sweeping the sorted objects then finds the pairs whose boxes overlap without testing every pair.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public class SweepAndPrune {
+    // How many times more spread out the other axis must be before the sweep switches to it
+    private static final double AXIS_SWITCH_RATIO = 2.0;
+
+    // Fields
+    private int count;
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+    private int[] order;
+    private int orderCount;
+    private long[] sortScratch;
+    private boolean[] ordered;
+    private boolean sortByX;
+    private int[] pairFirst;
+    private int[] pairSecond;
+    private int pairCount;
+
+    /**
+     * Creates an empty broadphase.
+     */
+    public SweepAndPrune() {
+        count = 0;
+        minX = new int[16];
+        minY = new int[16];
+        maxX = new int[16];
+        maxY = new int[16];
+        order = new int[16];
+        orderCount = 0;
+        sortScratch = new long[16];
+        ordered = new boolean[16];
+        sortByX = true;
+        pairFirst = new int[16];
+        pairSecond = new int[16];
+        pairCount = 0;
+    }
+
+    /**
+     * Sets the number of objects. Their ids are from 0 to count - 1,
+     * the boxes of new ids must be set before the next findPairs.
+     *
+     * @param count the number of objects
+     */
+    public void setCount(int count) {
+        if (count > minX.length) {
+            int newLength = Math.max(count, minX.length * 2);
+            minX = Arrays.copyOf(minX, newLength);
+            minY = Arrays.copyOf(minY, newLength);
+            maxX = Arrays.copyOf(maxX, newLength);
+            maxY = Arrays.copyOf(maxY, newLength);
+            order = Arrays.copyOf(order, newLength);
+            ordered = Arrays.copyOf(ordered, newLength);
+        }
+        this.count = count;
+    }
+
+    /**
+     * Sets the bounding box of an object, typically every tick after it moved.
+     *
+     * @param id the id of the object
+     * @param minX the left edge of the box
+     * @param minY the top edge of the box
+     * @param maxX the right edge of the box
+     * @param maxY the bottom edge of the box
+     */
+    public void setBox(int id, int minX, int minY, int maxX, int maxY) {
+        this.minX[id] = minX;
+        this.minY[id] = minY;
+        this.maxX[id] = maxX;
+        this.maxY[id] = maxY;
+    }
+
+    /**
+     * Finds the pairs of objects whose boxes overlap, each pair once.
+     * Touching boxes overlap too. The pairs only share boxes, the caller tests them exactly.
+     *
+     * @return the number of pairs, read them with getPairFirst and getPairSecond
+     */
+    public int findPairs() {
+        updateOrder();
+
+        pairCount = 0;
+        for (int i = 0; i < orderCount; i++) {
+            int first = order[i];
+            int end = sortByX ? maxX[first] : maxY[first];
+
+            // Later objects start after this one, the sweep stops at the first one starting past its end
+            for (int j = i + 1; j < orderCount; j++) {
+                int second = order[j];
+                if ((sortByX ? minX[second] : minY[second]) > end) {
+                    break;
+                }
+                boolean overlaps = sortByX
+                    ? minY[second] <= maxY[first] && minY[first] <= maxY[second]
+                    : minX[second] <= maxX[first] && minX[first] <= maxX[second];
+                if (overlaps) {
+                    addPair(first, second);
+                }
+            }
+        }
+
+        return pairCount;
+    }
+
+    /**
+     * Gets the first object of a pair found by the last findPairs.
+     *
+     * @param index the index of the pair
+     * @return the id of the object
+     */
+    public int getPairFirst(int index) {
+        return pairFirst[index];
+    }
+
+    /**
+     * Gets the second object of a pair found by the last findPairs.
+     *
+     * @param index the index of the pair
+     * @return the id of the object
+     */
+    public int getPairSecond(int index) {
+        return pairSecond[index];
+    }
+
+    /**
+     * Brings the order up to date with the objects and their boxes.
+     */
+    private void updateOrder() {
+        // Forget removed objects and append new ones, keeping the order of the rest
+        int kept = 0;
+        for (int i = 0; i < orderCount; i++) {
+            if (order[i] < count) {
+                order[kept++] = order[i];
+            } else {
+                ordered[order[i]] = false;
+            }
+        }
+        orderCount = kept;
+        for (int id = 0; id < count; id++) {
+            if (!ordered[id]) {
+                ordered[id] = true;
+                order[orderCount++] = id;
+            }
+        }
+
+        // Sweep along the axis the objects are spread out more on, fewer boxes overlap on it.
+        // Spreads that are about the same, like a fan of balls served from one point, keep the axis
+        double spreadX = spread(minX, maxX);
+        double spreadY = spread(minY, maxY);
+        boolean switchAxis = sortByX ? spreadY > spreadX * AXIS_SWITCH_RATIO : spreadX > spreadY * AXIS_SWITCH_RATIO;
+        int[] keys = sortByX != switchAxis ? minX : minY;
+        if (switchAxis) {
+            // The order along the old axis is no help, sort from scratch
+            sortByX = !sortByX;
+            sortFully(keys);
+            return;
+        }
+
+        // Insertion sort, ties broken by id so the order does not depend on the previous ticks
+        for (int i = 1; i < orderCount; i++) {
+            int id = order[i];
+            int key = keys[id];
+            int j = i - 1;
+            while (j >= 0 && (keys[order[j]] > key || (keys[order[j]] == key && order[j] > id))) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = id;
+        }
+    }
+
+    /**
+     * Sorts the objects by a key with a full sort, ties broken by id like the insertion sort.
+     *
+     * @param keys the keys of the objects
+     */
+    private void sortFully(int[] keys) {
+        if (sortScratch.length < orderCount) {
+            sortScratch = new long[order.length];
+        }
+        // The key in the high half and the id in the low half sort by key, then by id
+        for (int i = 0; i < orderCount; i++) {
+            sortScratch[i] = ((long) keys[order[i]] << 32) | order[i];
+        }
+        Arrays.sort(sortScratch, 0, orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            order[i] = (int) sortScratch[i];
+        }
+    }
+
+    /**
+     * Gets how far the centers of the objects are spread out along an axis.
+     *
+     * @param min the lower edges of the boxes on the axis
+     * @param max the upper edges of the boxes on the axis
+     * @return the variance of the centers multiplied by the squared number of objects
+     */
+    private double spread(int[] min, int[] max) {
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int id = 0; id < count; id++) {
+            double center = ((long) min[id] + max[id]) / 2.0;
+            sum += center;
+            sumOfSquares += center * center;
+        }
+        return sumOfSquares * count - sum * sum;
+    }
+
+    private void addPair(int first, int second) {
+        if (pairCount == pairFirst.length) {
+            pairFirst = Arrays.copyOf(pairFirst, pairCount * 2);
+            pairSecond = Arrays.copyOf(pairSecond, pairCount * 2);
+        }
+        pairFirst[pairCount] = first;
+        pairSecond[pairCount] = second;
+        pairCount++;
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * Predicts the path of a ball as a sequence of contacts with the walls, the paddle line and the bricks.
+ * Between two contacts the ball flies straight, so the bricks it may hit are found by walking the cells
+ * of the brick grid along the path with a DDA traversal, testing only the bricks of the cells the ball passes.
+ * Bricks are not hit and the paddle is assumed to be wherever the ball comes down,
+ * so the first contact with the paddle line is where the ball lands.
+ * Contacts are kept in preallocated arrays, so a prediction every tick creates no garbage.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public class TrajectoryPredictor {
+    /**
+     * The ball bounces off the left, right or top wall.
+     */
+    public static final int WALL = 0;
+
+    /**
+     * The ball comes down to the top of the paddle.
+     */
+    public static final int PADDLE = 1;
+
+    /**
+     * The ball bounces off a brick.
+     */
+    public static final int BRICK = 2;
+
+    // Fields
+    private final int canvasWidth;
+    private final Collision.SweptHit hit = new Collision.SweptHit();
+    private int[] contactX;
+    private int[] contactY;
+    private int[] contactKinds;
+    private int[] contactBricks;
+    private int contactCount;
+
+    /**
+     * Creates a predictor.
+     *
+     * @param canvasWidth the width of the game canvas
+     * @param maxContacts the most contacts a prediction follows the ball through
+     */
+    public TrajectoryPredictor(int canvasWidth, int maxContacts) {
+        this.canvasWidth = canvasWidth;
+        contactX = new int[maxContacts];
+        contactY = new int[maxContacts];
+        contactKinds = new int[maxContacts];
+        contactBricks = new int[maxContacts];
+        contactCount = 0;
+    }
+
+    /**
+     * Predicts the contacts of a ball from its current position and velocity.
+     * The prediction ends after the maximal number of contacts or when the ball would leave the canvas.
+     *
+     * @param ball the ball
+     * @param paddle the paddle, only its top edge is used
+     * @param brickGrid the bricks, only read
+     * @return the number of contacts predicted, read them with the getters
+     */
+    public int predict(Ball ball, Paddle paddle, BrickGrid brickGrid) {
+        // Everything in 16.16 fixed point, like the ball itself
+        int x = ball.getFixedX();
+        int y = ball.getFixedY();
+        int velocityX = ball.getVelocityX();
+        int velocityY = ball.getVelocityY();
+        int radius = FixedPoint.fromInt(ball.getRadius());
+        int lastBrick = -1;
+        contactCount = 0;
+
+        while (contactCount < contactX.length && (velocityX != 0 || velocityY != 0)) {
+            // The free path ends at the wall or the paddle line the ball flies towards
+            double wallTime = Double.POSITIVE_INFINITY;
+            boolean wallIsVertical = false;
+            if (velocityX < 0) {
+                wallTime = (double) (radius - x) / velocityX;
+                wallIsVertical = true;
+            } else if (velocityX > 0) {
+                wallTime = (double) (FixedPoint.fromInt(canvasWidth) - radius - x) / velocityX;
+                wallIsVertical = true;
+            }
+            double lineTime = Double.POSITIVE_INFINITY;
+            if (velocityY < 0) {
+                lineTime = (double) (radius - y) / velocityY;
+            } else if (velocityY > 0) {
+                lineTime = (double) (FixedPoint.fromInt(paddle.getY()) - radius - y) / velocityY;
+            }
+            boolean paddleLine = velocityY > 0 && lineTime <= wallTime;
+            if (lineTime < wallTime) {
+                wallTime = lineTime;
+                wallIsVertical = false;
+            }
+            if (wallTime < 0 || wallTime == Double.POSITIVE_INFINITY) {
+                // Already below the paddle, the ball is lost
+                break;
+            }
+
+            int endX = x + (int) Math.round(velocityX * wallTime);
+            int endY = y + (int) Math.round(velocityY * wallTime);
+            int brick = findFirstBrick(brickGrid, x, y, endX, endY, radius, lastBrick);
+            if (brick >= 0) {
+                if (hit.edge == Collision.CollisionEdge.NONE) {
+                    // Stuck in a brick, there is no direction to bounce in
+                    break;
+                }
+                addContact(hit.x, hit.y, BRICK, brick);
+
+                // Mirrored about the edge like Ball.reflect, slanted bricks turn the ball by other angles
+                double approach = velocityX * hit.normalX + velocityY * hit.normalY;
+                if (approach < 0) {
+                    velocityX -= (int) Math.round(2 * approach * hit.normalX);
+                    velocityY -= (int) Math.round(2 * approach * hit.normalY);
+                }
+                x = hit.x;
+                y = hit.y;
+                lastBrick = brick;
+            } else {
+                addContact(endX, endY, paddleLine ? PADDLE : WALL, -1);
+                if (wallIsVertical) {
+                    velocityX = -velocityX;
+                } else {
+                    velocityY = -velocityY;
+                }
+                x = endX;
+                y = endY;
+                lastBrick = -1;
+            }
+        }
+
+        return contactCount;
+    }
+
+    /**
+     * Gets the number of contacts of the last prediction.
+     *
+     * @return the number of contacts
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Gets the x-coordinate of the ball's center at a contact.
+     *
+     * @param index the index of the contact, in the order the ball reaches them
+     * @return the x-coordinate, rounded to whole pixels
+     */
+    public int getContactX(int index) {
+        return FixedPoint.round(contactX[index]);
+    }
+
+    /**
+     * Gets the y-coordinate of the ball's center at a contact.
+     *
+     * @param index the index of the contact
+     * @return the y-coordinate, rounded to whole pixels
+     */
+    public int getContactY(int index) {
+        return FixedPoint.round(contactY[index]);
+    }
+
+    /**
+     * Gets what the ball touches at a contact.
+     *
+     * @param index the index of the contact
+     * @return WALL, PADDLE or BRICK
+     */
+    public int getContactKind(int index) {
+        return contactKinds[index];
+    }
+
+    /**
+     * Gets the brick the ball touches at a contact.
+     *
+     * @param index the index of the contact
+     * @return the id of the brick, -1 if the contact is not with a brick
+     */
+    public int getContactBrick(int index) {
+        return contactBricks[index];
+    }
+
+    /**
+     * Finds the first live brick the ball touches on a straight path and leaves the contact in the hit.
+     * The cells the center passes are walked in order, and around each one the cells close enough
+     * for the ball to reach a brick in them. Stepping to the next cell adds only one new column
+     * or row of them, so every cell near the path is visited once.
+     * The walk stops at the first cell entered after the earliest contact found so far.
+     *
+     * @param brickGrid the bricks
+     * @param fromX the x-coordinate of the ball's center at the start of the path, 16.16 fixed point
+     * @param fromY the y-coordinate of the ball's center at the start of the path, 16.16 fixed point
+     * @param toX the x-coordinate of the ball's center at the end of the path, 16.16 fixed point
+     * @param toY the y-coordinate of the ball's center at the end of the path, 16.16 fixed point
+     * @param radius the radius of the ball, 16.16 fixed point
+     * @param skipped the brick the ball starts touching, -1 for none
+     * @return the id of the brick, -1 if the path is free
+     */
+    private int findFirstBrick(BrickGrid brickGrid, int fromX, int fromY, int toX, int toY,
+                               int radius, int skipped) {
+        int cols = brickGrid.getCols();
+        int rows = brickGrid.getRows();
+        double gridX = FixedPoint.fromInt(brickGrid.getX());
+        double gridY = FixedPoint.fromInt(brickGrid.getY());
+        double cellWidth = FixedPoint.fromInt(brickGrid.getCellWidth());
+        double cellHeight = FixedPoint.fromInt(brickGrid.getCellHeight());
+        double deltaX = (double) toX - fromX;
+        double deltaY = (double) toY - fromY;
+
+        // A brick fills at most its cell, so bricks the ball reaches are this many cells from the center
+        int reachCols = (int) (radius / cellWidth) + 1;
+        int reachRows = (int) (radius / cellHeight) + 1;
+
+        // Start where the path enters the grid widened by the reach, an earlier part cannot touch a brick
+        double minX = gridX - reachCols * cellWidth;
+        double maxX = gridX + (cols + reachCols) * cellWidth;
+        double minY = gridY - reachRows * cellHeight;
+        double maxY = gridY + (rows + reachRows) * cellHeight;
+        double enterTime = 0;
+        double exitTime = 1;
+        if (deltaX == 0) {
+            if (fromX < minX || fromX > maxX) {
+                return -1;
+            }
+        } else {
+            double minTime = (minX - fromX) / deltaX;
+            double maxTime = (maxX - fromX) / deltaX;
+            enterTime = Math.max(enterTime, Math.min(minTime, maxTime));
+            exitTime = Math.min(exitTime, Math.max(minTime, maxTime));
+        }
+        if (deltaY == 0) {
+            if (fromY < minY || fromY > maxY) {
+                return -1;
+            }
+        } else {
+            double minTime = (minY - fromY) / deltaY;
+            double maxTime = (maxY - fromY) / deltaY;
+            enterTime = Math.max(enterTime, Math.min(minTime, maxTime));
+            exitTime = Math.min(exitTime, Math.max(minTime, maxTime));
+        }
+        if (enterTime > exitTime) {
+            return -1;
+        }
+
+        double startX = fromX + deltaX * enterTime;
+        double startY = fromY + deltaY * enterTime;
+        int col = (int) Math.floor((startX - gridX) / cellWidth);
+        int row = (int) Math.floor((startY - gridY) / cellHeight);
+        int stepCol = deltaX > 0 ? 1 : -1;
+        int stepRow = deltaY > 0 ? 1 : -1;
+
+        // Path times of the next vertical and horizontal cell borders, and between two of them
+        double nextColTime = Double.POSITIVE_INFINITY;
+        double colTime = Double.POSITIVE_INFINITY;
+        if (deltaX != 0) {
+            double border = gridX + (deltaX > 0 ? col + 1 : col) * cellWidth;
+            nextColTime = (border - fromX) / deltaX;
+            colTime = cellWidth / Math.abs(deltaX);
+        }
+        double nextRowTime = Double.POSITIVE_INFINITY;
+        double rowTime = Double.POSITIVE_INFINITY;
+        if (deltaY != 0) {
+            double border = gridY + (deltaY > 0 ? row + 1 : row) * cellHeight;
+            nextRowTime = (border - fromY) / deltaY;
+            rowTime = cellHeight / Math.abs(deltaY);
+        }
+
+        double earliestTime = Double.MAX_VALUE;
+        int found = -1;
+        found = testCells(brickGrid, col - reachCols, col + reachCols, row - reachRows, row + reachRows,
+            fromX, fromY, toX, toY, radius, skipped, found, earliestTime);
+        if (found >= 0) {
+            earliestTime = hit.time;
+        }
+
+        while (true) {
+            double enteredTime = Math.min(nextColTime, nextRowTime);
+            if (enteredTime > exitTime || enteredTime >= earliestTime) {
+                return found;
+            }
+
+            int brick;
+            if (nextColTime < nextRowTime) {
+                col += stepCol;
+                nextColTime += colTime;
+                int newCol = col + stepCol * reachCols;
+                brick = testCells(brickGrid, newCol, newCol, row - reachRows, row + reachRows,
+                    fromX, fromY, toX, toY, radius, skipped, found, earliestTime);
+            } else {
+                row += stepRow;
+                nextRowTime += rowTime;
+                int newRow = row + stepRow * reachRows;
+                brick = testCells(brickGrid, col - reachCols, col + reachCols, newRow, newRow,
+                    fromX, fromY, toX, toY, radius, skipped, found, earliestTime);
+            }
+            if (brick != found) {
+                found = brick;
+                earliestTime = hit.time;
+            }
+        }
+    }
+
+    /**
+     * Tests the live bricks in a block of cells against the path, keeping the earliest contact.
+     *
+     * @return the brick of the earliest contact, found if none of the block is earlier
+     */
+    private int testCells(BrickGrid brickGrid, int firstCol, int lastCol, int firstRow, int lastRow,
+                          int fromX, int fromY, int toX, int toY, int radius, int skipped,
+                          int found, double earliestTime) {
+        int cols = brickGrid.getCols();
+        firstCol = Math.max(firstCol, 0);
+        lastCol = Math.min(lastCol, cols - 1);
+        firstRow = Math.max(firstRow, 0);
+        lastRow = Math.min(lastRow, brickGrid.getRows() - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int brick = row * cols + col;
+                if (brick != skipped && brickGrid.isAlive(brick) && brickGrid.sweptHitBrick(
+                        brick, fromX, fromY, toX, toY, radius, earliestTime, hit)) {
+                    earliestTime = hit.time;
+                    found = brick;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void addContact(int x, int y, int kind, int brick) {
+        contactX[contactCount] = x;
+        contactY[contactCount] = y;
+        contactKinds[contactCount] = kind;
+        contactBricks[contactCount] = brick;
+        contactCount++;
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.Arrays;
+
+/**
+ * A uniform grid of cells used as a broadphase for collision detection.
+ * Every cell keeps the ids of the objects overlapping it, so a query visits only
+ * the cells its area covers, no matter how many objects are elsewhere on the field.
+ * Objects outside the grid are kept in its border cells.
+ * Queries keep their results in a Query, threads querying at the same time each use their own.
+ *
+ * @author ArkanoidGame
+ * @version 1.0
+ */
+public class UniformGrid {
+    // Fields
+    private final int originX;
+    private final int originY;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final int columns;
+    private final int rows;
+    private int[][] cellIds;
+    private int[] cellCounts;
+    private final int maxIds;
+    private final Query defaultQuery;
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param originX the x-coordinate of the grid's top-left corner
+     * @param originY the y-coordinate of the grid's top-left corner
+     * @param cellWidth the width of a cell in pixels
+     * @param cellHeight the height of a cell in pixels
+     * @param columns the number of columns
+     * @param rows the number of rows
+     * @param maxIds the ids of objects are between 0 and maxIds - 1
+     */
+    public UniformGrid(int originX, int originY, int cellWidth, int cellHeight, int columns, int rows, int maxIds) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.columns = columns;
+        this.rows = rows;
+        cellIds = new int[columns * rows][];
+        cellCounts = new int[columns * rows];
+        this.maxIds = maxIds;
+        defaultQuery = new Query(maxIds);
+    }
+
+    /**
+     * Creates the results of queries for one thread.
+     *
+     * @return an empty query result for objects of this grid
+     */
+    public Query createQuery() {
+        return new Query(maxIds);
+    }
+
+    /**
+     * Adds an object to all cells its rectangle overlaps.
+     *
+     * @param id the id of the object
+     * @param x the x-coordinate of the object's top-left corner
+     * @param y the y-coordinate of the object's top-left corner
+     * @param width the width of the object
+     * @param height the height of the object
+     */
+    public void insert(int id, int x, int y, int width, int height) {
+        int firstColumn = columnOf(x);
+        int lastColumn = columnOf(x + width - 1);
+        int firstRow = rowOf(y);
+        int lastRow = rowOf(y + height - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                if (cellIds[cell] == null) {
+                    cellIds[cell] = new int[4];
+                } else if (cellCounts[cell] == cellIds[cell].length) {
+                    cellIds[cell] = Arrays.copyOf(cellIds[cell], cellCounts[cell] * 2);
+                }
+                cellIds[cell][cellCounts[cell]++] = id;
+            }
+        }
+    }
+
+    /**
+     * Removes an object from all cells its rectangle overlaps.
+     * The rectangle must be the same as when the object was inserted.
+     *
+     * @param id the id of the object
+     * @param x the x-coordinate of the object's top-left corner
+     * @param y the y-coordinate of the object's top-left corner
+     * @param width the width of the object
+     * @param height the height of the object
+     */
+    public void remove(int id, int x, int y, int width, int height) {
+        int firstColumn = columnOf(x);
+        int lastColumn = columnOf(x + width - 1);
+        int firstRow = rowOf(y);
+        int lastRow = rowOf(y + height - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                int[] ids = cellIds[cell];
+                for (int i = 0; i < cellCounts[cell]; i++) {
+                    if (ids[i] == id) {
+                        // Order within a cell does not matter, the last id fills the gap
+                        ids[i] = ids[--cellCounts[cell]];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the objects in the cells overlapping an area. Every object is reported once,
+     * even if it spans several cells. Objects in the same cells that do not touch the area
+     * may be reported too, the caller tests them exactly.
+     *
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @return the number of objects found, read them with getFound
+     */
+    public int query(int minX, int minY, int maxX, int maxY) {
+        return query(minX, minY, maxX, maxY, defaultQuery);
+    }
+
+    /**
+     * Finds the objects in the cells overlapping an area like query, keeping the results in a
+     * query of the caller. The grid is only read, so threads may query it at the same time
+     * as long as nothing is inserted or removed.
+     *
+     * @param minX the left edge of the area
+     * @param minY the top edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the bottom edge of the area
+     * @param query receives the objects found, replacing the results of its previous query
+     * @return the number of objects found, read them with the query's getFound
+     */
+    public int query(int minX, int minY, int maxX, int maxY, Query query) {
+        query.begin();
+
+        int firstColumn = columnOf(minX);
+        int lastColumn = columnOf(maxX);
+        int firstRow = rowOf(minY);
+        int lastRow = rowOf(maxY);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                int[] ids = cellIds[cell];
+                for (int i = 0; i < cellCounts[cell]; i++) {
+                    query.report(ids[i]);
+                }
+            }
+        }
+
+        return query.getCount();
+    }
+
+    /**
+     * Gets an object found by the last query.
+     *
+     * @param index the index of the result, from 0 to the count returned by query - 1
+     * @return the id of the object
+     */
+    public int getFound(int index) {
+        return defaultQuery.getFound(index);
+    }
+
+    /**
+     * Removes all objects from the grid.
+     */
+    public void clear() {
+        Arrays.fill(cellCounts, 0);
+    }
+
+    private int columnOf(int x) {
+        return Math.max(0, Math.min(columns - 1, Math.floorDiv(x - originX, cellWidth)));
+    }
+
+    private int rowOf(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y - originY, cellHeight)));
+    }
+
+    /**
+     * The objects found by a query, every object reported once.
+     */
+    public static class Query {
+        // Fields
+        private int[] reportedStamps;
+        private int queryStamp;
+        private int[] found;
+        private int foundCount;
+
+        private Query(int maxIds) {
+            reportedStamps = new int[maxIds];
+            queryStamp = 0;
+            found = new int[16];
+            foundCount = 0;
+        }
+
+        /**
+         * Gets the number of objects found by the last query.
+         *
+         * @return the number of objects
+         */
+        public int getCount() {
+            return foundCount;
+        }
+
+        /**
+         * Gets an object found by the last query.
+         *
+         * @param index the index of the result, from 0 to getCount() - 1
+         * @return the id of the object
+         */
+        public int getFound(int index) {
+            return found[index];
+        }
+
+        private void begin() {
+            foundCount = 0;
+            queryStamp++;
+            if (queryStamp == 0) {
+                // Stamps wrapped around, old stamps could look like the current one
+                Arrays.fill(reportedStamps, 0);
+                queryStamp = 1;
+            }
+        }
+
+        private void report(int id) {
+            if (reportedStamps[id] != queryStamp) {
+                reportedStamps[id] = queryStamp;
+                if (foundCount == found.length) {
+                    found = Arrays.copyOf(found, foundCount * 2);
+                }
+                found[foundCount++] = id;
+            }
+        }
+    }
+}